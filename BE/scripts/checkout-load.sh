@@ -0,0 +1,27 @@
+#!/usr/bin/env sh
+# Fires concurrent checkouts of one unit of a product at the running application and prints
+# "<orders ok> <failed> <orders/s> <p50 ms> <p99 ms>". Used by the stock-shard and group-commit
+# benchmarks; needs an existing user and a product with enough stock.
+# Usage: scripts/checkout-load.sh <product id> <user id> [requests] [concurrency]
+set -e
+PRODUCT_ID=$1
+USER_ID=$2
+REQUESTS=${3:-2000}
+CONCURRENCY=${4:-50}
+API_URL=${API_URL:-http://localhost:8080/api}
+OUT=$(mktemp)
+trap 'rm -f "$OUT"' EXIT
+
+BODY="{\"userId\":$USER_ID,\"shippingAddress\":\"1 Bench St\",\"phoneNumber\":\"0900000000\",\"cartItems\":[{\"productId\":$PRODUCT_ID,\"quantity\":1}]}"
+
+start=$(date +%s%3N)
+seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} curl -s -o /dev/null -w '%{http_code} %{time_total}\n' \
+    -H "Content-Type: application/json" -X POST "$API_URL/orders/checkout" -d "$BODY" > "$OUT"
+elapsed=$(( $(date +%s%3N) - start ))
+
+ok=$(grep -c '^201 ' "$OUT" || true)
+failed=$(( REQUESTS - ok ))
+latencies=$(awk '{ print $2 * 1000 }' "$OUT" | sort -n)
+p50=$(echo "$latencies" | awk -v n="$REQUESTS" 'NR == int(n * 0.50 + 0.5) { printf "%.0f", $1 }')
+p99=$(echo "$latencies" | awk -v n="$REQUESTS" 'NR == int(n * 0.99 + 0.5) { printf "%.0f", $1 }')
+echo "$ok $failed $(( ok * 1000 / (elapsed > 0 ? elapsed : 1) )) $p50 $p99"
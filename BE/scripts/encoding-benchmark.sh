@@ -0,0 +1,20 @@
+#!/usr/bin/env sh
+# Compares JSON, CBOR and Smile on the running application: response size and time of the
+# list endpoints over HTTP, then the server-side serialization CPU from the encodings endpoint.
+# Usage: scripts/encoding-benchmark.sh [items] [rounds]
+set -e
+ITEMS=${1:-10000}
+ROUNDS=${2:-20}
+API_URL=${API_URL:-http://localhost:8080/api}
+ACTUATOR_URL=${ACTUATOR_URL:-http://localhost:8081/actuator}
+
+for path in /products /categories; do
+    for type in application/json application/cbor application/x-jackson-smile; do
+        printf '%-12s %-28s ' "$path" "$type"
+        curl -s -o /dev/null -H "Accept: $type" -w '%{size_download} bytes %{time_total}s\n' "$API_URL$path"
+    done
+done
+
+echo
+curl -s "$ACTUATOR_URL/encodings?items=$ITEMS&rounds=$ROUNDS"
+echo
@@ -0,0 +1,59 @@
+#!/usr/bin/env sh
+# Orders/s and checkout latency with group commit off and at each max batch size. The jar is
+# started once per setting (the pipeline is configured at startup) and gets the same concurrent
+# checkouts of one product each time. The checkout bulkhead is raised to the load's concurrency
+# so it measures the pipeline, not the admission limit. Needs the database from
+# application.properties and a built jar (mvn package).
+# Usage: scripts/group-commit-benchmark.sh [requests] [concurrency] [batch sizes...]
+set -e
+REQUESTS=${1:-3000}
+CONCURRENCY=${2:-100}
+if [ $# -gt 2 ]; then
+    shift 2
+    BATCH_SIZES=$*
+fi
+BATCH_SIZES=${BATCH_SIZES:-1 5 10 25 40 50 100}
+MAX_WAIT_MS=${MAX_WAIT_MS:-5}
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+JAR=${JAR:-$SCRIPT_DIR/../target/bandongho-springboot-1.0.0.jar}
+API_URL=${API_URL:-http://localhost:8080/api}
+READY_URL=${READY_URL:-http://localhost:8081/actuator/health/readiness}
+
+json_id() {
+    sed -n 's/.*"data":{"id":\([0-9]*\).*/\1/p'
+}
+
+# Starts the jar with the given extra arguments, runs the load, prints one result row
+run() {
+    label=$1
+    shift
+    java -jar "$JAR" --app.bulkhead.checkout.max-concurrent="$CONCURRENCY" "$@" > /tmp/group-commit-benchmark.log 2>&1 &
+    pid=$!
+    until curl -sf "$READY_URL" > /dev/null 2>&1; do
+        kill -0 "$pid" 2> /dev/null || { echo "application exited, see /tmp/group-commit-benchmark.log" >&2; exit 1; }
+        sleep 0.2
+    done
+
+    product_id=${PRODUCT_ID:-$(curl -sf "$API_URL/products" | sed -n 's/.*"data":\[{"id":\([0-9]*\).*/\1/p')}
+    email="bench$(date +%s%N)@example.com"
+    curl -sf -o /dev/null -H "Content-Type: application/json" -X POST "$API_URL/users/register" \
+        -d "{\"email\":\"$email\",\"password\":\"secret123\",\"fullName\":\"Group Commit Bench\",\"phone\":\"0900000000\",\"address\":\"1 Bench St\"}"
+    user_id=$(curl -sf -H "Content-Type: application/json" -X POST "$API_URL/users/login" \
+        -d "{\"email\":\"$email\",\"password\":\"secret123\"}" | json_id)
+    curl -sf -o /dev/null -H "Content-Type: application/json" -X PUT "$API_URL/products/bulk" \
+        -d "{\"changes\":[{\"id\":$product_id,\"stock\":$(( REQUESTS * 2 ))}]}"
+
+    set -- $("$SCRIPT_DIR/checkout-load.sh" "$product_id" "$user_id" "$REQUESTS" "$CONCURRENCY")
+    printf '%-10s %8s %8s %10s %8s %8s\n' "$label" "$1" "$2" "$3" "$4" "$5"
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+echo "$REQUESTS checkouts, concurrency $CONCURRENCY, max wait $MAX_WAIT_MS ms"
+printf '%-10s %8s %8s %10s %8s %8s\n' batch ok failed orders/s p50_ms p99_ms
+run "off" --app.checkout.group-commit.enabled=false
+for size in $BATCH_SIZES; do
+    run "$size" --app.checkout.group-commit.enabled=true \
+        --app.checkout.group-commit.max-batch-size="$size" \
+        --app.checkout.group-commit.max-wait-ms="$MAX_WAIT_MS"
+done
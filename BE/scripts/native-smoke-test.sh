@@ -0,0 +1,71 @@
+#!/usr/bin/env sh
+# Smoke test for the native binary (mvn -Pnative native:compile): starts a throwaway MariaDB in
+# Docker, boots target/bandongho-springboot against it and exercises the product, user and order
+# endpoints. Prints startup time and RSS; run scripts/startup-benchmark.sh for the JVM numbers.
+set -e
+BE_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+BINARY=${BINARY:-$BE_DIR/target/bandongho-springboot}
+DB_PORT=${DB_PORT:-3317}
+API=http://localhost:8080/api
+MANAGEMENT=http://localhost:8081/actuator
+
+docker run -d --rm --name bandongho-smoke-db -e MARIADB_ROOT_PASSWORD=root -p "$DB_PORT:3306" mariadb:11 > /dev/null
+cleanup() {
+    [ -n "$APP_PID" ] && kill "$APP_PID" 2> /dev/null || true
+    docker stop bandongho-smoke-db > /dev/null 2>&1 || true
+}
+trap cleanup EXIT
+until docker exec bandongho-smoke-db mariadb -uroot -proot -e "SELECT 1" > /dev/null 2>&1; do
+    sleep 1
+done
+
+start=$(date +%s%3N)
+"$BINARY" --spring.datasource.url="jdbc:mariadb://localhost:$DB_PORT/watch_store?createDatabaseIfNotExist=true" \
+    > /tmp/native-smoke.log 2>&1 &
+APP_PID=$!
+until curl -sf "$MANAGEMENT/health/liveness" > /dev/null 2>&1; do
+    kill -0 "$APP_PID" 2> /dev/null || { echo "native binary exited, see /tmp/native-smoke.log" >&2; exit 1; }
+    sleep 0.02
+done
+echo "startup: $(( $(date +%s%3N) - start )) ms, RSS: $(( $(ps -o rss= -p "$APP_PID") / 1024 )) MB"
+
+check() {
+    description=$1
+    shift
+    if ! body=$(curl -sf -H "Content-Type: application/json" "$@"); then
+        echo "FAIL $description" >&2
+        exit 1
+    fi
+    echo "ok   $description"
+}
+
+json_id() {
+    sed -n 's/.*"data":{"id":\([0-9]*\).*/\1/p'
+}
+
+check "list products" "$API/products"
+PRODUCT_ID=$(curl -sf "$API/products" | sed -n 's/.*"data":\[{"id":\([0-9]*\).*/\1/p')
+check "get product" "$API/products/$PRODUCT_ID"
+check "list categories" "$API/categories"
+check "search products" "$API/products/search?keyword=watch"
+
+EMAIL="smoke$(date +%s)@example.com"
+check "register user" -X POST "$API/users/register" \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"secret123\",\"fullName\":\"Smoke Test\",\"phone\":\"0900000000\",\"address\":\"1 Test St\"}"
+USER_ID=$(curl -sf -H "Content-Type: application/json" -X POST "$API/users/login" \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"secret123\"}" | json_id)
+check "get user" "$API/users/$USER_ID"
+
+check "add to cart" -X POST "$API/carts/$USER_ID/items" -d "{\"productId\":$PRODUCT_ID,\"quantity\":1}"
+check "checkout" -X POST "$API/orders/checkout" \
+    -d "{\"userId\":$USER_ID,\"shippingAddress\":\"1 Test St\",\"phoneNumber\":\"0900000000\"}"
+check "order history" "$API/orders/user/$USER_ID"
+# Readiness waits for the warm-up, which may still be running
+tries=0
+until curl -sf "$MANAGEMENT/health/readiness" > /dev/null 2>&1; do
+    tries=$(( tries + 1 ))
+    [ "$tries" -gt 120 ] && { echo "FAIL readiness" >&2; exit 1; }
+    sleep 0.5
+done
+echo "ok   readiness"
+echo "native smoke test passed"
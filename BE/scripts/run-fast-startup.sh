@@ -0,0 +1,8 @@
+#!/usr/bin/env sh
+# Starts the build produced by: mvn -Pfast-startup package
+set -e
+cd "$(dirname "$0")/../target/fast-startup"
+exec java -XX:SharedArchiveFile=application.jsa -Xshare:auto \
+    -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=fast-startup \
+    "$@" -jar bandongho-springboot-1.0.0.jar
@@ -0,0 +1,56 @@
+#!/usr/bin/env sh
+# Compares startup time and resident memory of the regular jar, the fast-startup build and,
+# when it has been built (mvn -Pnative native:compile), the native binary.
+# Needs the database from application.properties and both builds:
+#   mvn package && cp target/bandongho-springboot-1.0.0.jar /tmp/regular.jar
+#   mvn -Pfast-startup package
+# Usage: scripts/startup-benchmark.sh [runs]
+set -e
+RUNS=${1:-5}
+BE_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+REGULAR_JAR=${REGULAR_JAR:-/tmp/regular.jar}
+HEALTH_URL=${HEALTH_URL:-http://localhost:8081/actuator/health/liveness}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Prints "<ms until liveness is UP> <RSS in KB at that point>"
+measure() {
+    start=$(now_ms)
+    "$@" > /tmp/startup-benchmark.log 2>&1 &
+    pid=$!
+    until curl -sf "$HEALTH_URL" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "application exited, see /tmp/startup-benchmark.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+run() {
+    label=$1
+    shift
+    total_ms=0
+    total_rss=0
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        result=$(measure "$@")
+        total_ms=$(( total_ms + ${result% *} ))
+        total_rss=$(( total_rss + ${result#* } ))
+        i=$(( i + 1 ))
+    done
+    echo "$label: avg startup $(( total_ms / RUNS )) ms, avg RSS $(( total_rss / RUNS / 1024 )) MB over $RUNS runs"
+}
+
+run "regular     " java -jar "$REGULAR_JAR"
+run "fast-startup" "$BE_DIR/scripts/run-fast-startup.sh"
+if [ -x "$BE_DIR/target/bandongho-springboot" ]; then
+    run "native      " "$BE_DIR/target/bandongho-springboot"
+fi
@@ -0,0 +1,38 @@
+#!/usr/bin/env sh
+# Checkout throughput on one hot product as its stock is split over more shard rows. For each
+# shard count the product is re-sharded, restocked and hit with the same concurrent checkouts.
+# Needs the running application; uses the first product unless PRODUCT_ID is set. Leaves the
+# product unsharded afterwards, with the stock the last run left.
+# Usage: scripts/stock-shard-benchmark.sh [requests] [concurrency] [shard counts...]
+set -e
+REQUESTS=${1:-2000}
+CONCURRENCY=${2:-50}
+if [ $# -gt 2 ]; then
+    shift 2
+    SHARD_COUNTS=$*
+fi
+SHARD_COUNTS=${SHARD_COUNTS:-0 1 2 4 8 16 32}
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+API_URL=${API_URL:-http://localhost:8080/api}
+
+json_id() {
+    sed -n 's/.*"data":{"id":\([0-9]*\).*/\1/p'
+}
+
+PRODUCT_ID=${PRODUCT_ID:-$(curl -sf "$API_URL/products" | sed -n 's/.*"data":\[{"id":\([0-9]*\).*/\1/p')}
+EMAIL="bench$(date +%s)@example.com"
+curl -sf -o /dev/null -H "Content-Type: application/json" -X POST "$API_URL/users/register" \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"secret123\",\"fullName\":\"Shard Bench\",\"phone\":\"0900000000\",\"address\":\"1 Bench St\"}"
+USER_ID=$(curl -sf -H "Content-Type: application/json" -X POST "$API_URL/users/login" \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"secret123\"}" | json_id)
+
+echo "product $PRODUCT_ID, $REQUESTS checkouts, concurrency $CONCURRENCY"
+printf '%-8s %8s %8s %10s %8s %8s\n' shards ok failed orders/s p50_ms p99_ms
+for shards in $SHARD_COUNTS; do
+    curl -sf -o /dev/null -X PUT "$API_URL/products/$PRODUCT_ID/stock-shards?shards=$shards"
+    curl -sf -o /dev/null -H "Content-Type: application/json" -X PUT "$API_URL/products/bulk" \
+        -d "{\"changes\":[{\"id\":$PRODUCT_ID,\"stock\":$(( REQUESTS * 2 ))}]}"
+    set -- $("$SCRIPT_DIR/checkout-load.sh" "$PRODUCT_ID" "$USER_ID" "$REQUESTS" "$CONCURRENCY")
+    printf '%-8s %8s %8s %10s %8s %8s\n' "$shards" "$1" "$2" "$3" "$4" "$5"
+done
+curl -sf -o /dev/null -X PUT "$API_URL/products/$PRODUCT_ID/stock-shards?shards=0"
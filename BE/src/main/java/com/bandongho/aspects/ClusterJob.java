@@ -0,0 +1,17 @@
+package com.bandongho.aspects;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Runs the annotated method on at most one node at a time, under the job_leases row named name().
+// Nodes that find the lease taken skip the call and get null (or 0/false for primitive results).
+// leaseMs and keepMs accept ${...} placeholders.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ClusterJob {
+    String name();
+    String leaseMs() default "${app.jobs.lease-ms:60000}";
+    String keepMs() default "0";
+}
@@ -0,0 +1,79 @@
+package com.bandongho.aspects;
+
+import com.bandongho.services.LeaseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Runs before the transaction interceptor, so the lease is taken and renewed outside the job's
+// transaction and the job can fence its writes with LeaseService.assertHeld(currentLease()).
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ClusterJobAspect {
+
+    private static final ThreadLocal<LeaseService.Lease> CURRENT_LEASE = new ThreadLocal<>();
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public static LeaseService.Lease currentLease() {
+        return CURRENT_LEASE.get();
+    }
+
+    @Around("@annotation(clusterJob)")
+    public Object runExclusive(ProceedingJoinPoint joinPoint, ClusterJob clusterJob) throws Throwable {
+        long leaseMs = Long.parseLong(environment.resolvePlaceholders(clusterJob.leaseMs()));
+        long keepMs = Long.parseLong(environment.resolvePlaceholders(clusterJob.keepMs()));
+
+        Object[] result = new Object[1];
+        Throwable[] failure = new Throwable[1];
+        boolean ran = leaseService.runExclusive(clusterJob.name(), leaseMs, keepMs, lease -> {
+            LeaseService.Lease previous = CURRENT_LEASE.get();
+            CURRENT_LEASE.set(lease);
+            try {
+                result[0] = joinPoint.proceed();
+            } catch (Throwable e) {
+                failure[0] = e;
+            } finally {
+                CURRENT_LEASE.set(previous);
+            }
+        });
+
+        if (!ran) {
+            meterRegistry.counter("bandongho.jobs.skipped", "job", clusterJob.name()).increment();
+            return emptyResult(((MethodSignature) joinPoint.getSignature()).getReturnType());
+        }
+        meterRegistry.counter("bandongho.jobs.runs", "job", clusterJob.name()).increment();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return result[0];
+    }
+
+    private Object emptyResult(Class<?> type) {
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.bandongho.aspects;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs before the transaction interceptor so every attempt gets a fresh transaction and a fresh read.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConflictRetryAspect {
+
+    private static final int MAX_TRACKED_ENTITIES = 1000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.retry.conflict.max-attempts:4}")
+    private int defaultMaxAttempts;
+
+    @Value("${app.retry.conflict.initial-backoff-ms:20}")
+    private long defaultInitialBackoffMs;
+
+    @Value("${app.retry.conflict.max-backoff-ms:500}")
+    private long defaultMaxBackoffMs;
+
+    // "Product#42" -> conflicts seen, to spot hot SKUs without high-cardinality metric tags
+    private final Map<String, LongAdder> conflictsByEntity = new ConcurrentHashMap<>();
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        // Inside a caller's transaction a retry would reuse the doomed persistence context
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        int maxAttempts = retryOnConflict.maxAttempts() > 0 ? retryOnConflict.maxAttempts() : defaultMaxAttempts;
+        long initialBackoff = retryOnConflict.initialBackoffMs() > 0 ? retryOnConflict.initialBackoffMs() : defaultInitialBackoffMs;
+        long maxBackoff = retryOnConflict.maxBackoffMs() > 0 ? retryOnConflict.maxBackoffMs() : defaultMaxBackoffMs;
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    meterRegistry.counter("bandongho.conflict.recovered", "operation", operation).increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                String entity = recordConflict(e);
+                meterRegistry.counter("bandongho.conflict.detected", "operation", operation, "entity", entity).increment();
+
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("bandongho.conflict.exhausted", "operation", operation).increment();
+                    throw e;
+                }
+                meterRegistry.counter("bandongho.conflict.retries", "operation", operation).increment();
+
+                // Exponential backoff with full jitter so colliding writers spread out
+                long ceiling = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 20));
+                Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            }
+        }
+    }
+
+    public Map<String, Long> getTopConflicts(int limit) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        conflictsByEntity.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue().sum()));
+        return top;
+    }
+
+    private String recordConflict(OptimisticLockingFailureException e) {
+        if (!(e instanceof ObjectOptimisticLockingFailureException lockFailure)
+                || lockFailure.getPersistentClassName() == null) {
+            return "unknown";
+        }
+        String entity = lockFailure.getPersistentClassName();
+        entity = entity.substring(entity.lastIndexOf('.') + 1);
+        if (conflictsByEntity.size() >= MAX_TRACKED_ENTITIES) {
+            conflictsByEntity.clear();
+        }
+        conflictsByEntity.computeIfAbsent(entity + "#" + lockFailure.getIdentifier(), key -> new LongAdder()).increment();
+        return entity;
+    }
+}
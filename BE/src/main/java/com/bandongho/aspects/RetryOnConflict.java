@@ -0,0 +1,16 @@
+package com.bandongho.aspects;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Re-runs the annotated transactional method when it loses an optimistic-lock race.
+// Values <= 0 fall back to the app.retry.conflict.* properties.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+    int maxAttempts() default 0;
+    long initialBackoffMs() default 0;
+    long maxBackoffMs() default 0;
+}
@@ -0,0 +1,78 @@
+package com.bandongho.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A concurrency budget with a bounded wait queue. Callers that find the budget used up wait at
+// most maxWaitMs, and only maxQueue of them may wait at once; everyone else is turned away
+// immediately so a saturated class sheds load instead of piling up threads.
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private final Tags tags;
+
+    public Bulkhead(String trafficClass, String resource, int maxConcurrent, int maxQueue, long maxWaitMs,
+                    MeterRegistry meterRegistry) {
+        this.name = trafficClass + "/" + resource;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(maxConcurrent);
+        this.meterRegistry = meterRegistry;
+        this.tags = Tags.of("class", trafficClass, "resource", resource);
+
+        meterRegistry.gauge("bandongho.bulkhead.active", tags, permits, p -> maxConcurrent - p.availablePermits());
+        meterRegistry.gauge("bandongho.bulkhead.queued", tags, waiting);
+        meterRegistry.gauge("bandongho.bulkhead.limit", tags, this, bulkhead -> bulkhead.maxConcurrent);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (maxWaitMs <= 0 || waiting.incrementAndGet() > maxQueue) {
+            if (maxWaitMs > 0) {
+                waiting.decrementAndGet();
+            }
+            reject("queue-full");
+            return false;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                meterRegistry.timer("bandongho.bulkhead.wait", tags).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                return true;
+            }
+            reject("timeout");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject("interrupted");
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    private void reject(String reason) {
+        meterRegistry.counter("bandongho.bulkhead.rejected", tags.and("reason", reason)).increment();
+    }
+}
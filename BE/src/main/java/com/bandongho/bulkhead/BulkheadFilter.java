@@ -0,0 +1,106 @@
+package com.bandongho.bulkhead;
+
+import com.bandongho.dtos.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Admits each request into its class's thread budget before any other work is done. A class that
+// is over budget gets a 503 straight away, so a heavy admin report cannot take the Tomcat threads
+// that checkout needs. A request that goes async (checkout returns a CompletableFuture) keeps its
+// permit until the async request completes, so its work stays inside the budget.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        TrafficClass trafficClass = TrafficClass.classify(request.getMethod(), path);
+        Bulkhead bulkhead = bulkheadRegistry.requests(trafficClass);
+
+        if (!bulkhead.tryEnter()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.error("Server is busy with " + trafficClass.name().toLowerCase() + " requests, please retry"));
+            return;
+        }
+        BulkheadRegistry.setCurrentClass(trafficClass);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            BulkheadRegistry.setCurrentClass(null);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ExitOnCompletion(bulkhead));
+            } else {
+                bulkhead.exit();
+            }
+        }
+    }
+
+    // The async dispatch that writes the result is not filtered again, so the permit is given back here
+    private static class ExitOnCompletion implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean exited = new AtomicBoolean();
+
+        ExitOnCompletion(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when async is restarted
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void exit() {
+            if (exited.compareAndSet(false, true)) {
+                bulkhead.exit();
+            }
+        }
+    }
+}
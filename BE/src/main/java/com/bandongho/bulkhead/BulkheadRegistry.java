@@ -0,0 +1,89 @@
+package com.bandongho.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Per-class budgets from app.bulkhead.<class>.*: max-concurrent / max-queue / max-wait-ms limit
+// the request threads a class may hold, max-connections / connection-wait-ms the pooled database
+// connections. The class of the request being served is kept in a thread local by BulkheadFilter.
+@Component
+public class BulkheadRegistry {
+
+    private static final ThreadLocal<TrafficClass> CURRENT_CLASS = new ThreadLocal<>();
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<TrafficClass, Bulkhead> requestBulkheads = new EnumMap<>(TrafficClass.class);
+    private final Map<TrafficClass, Bulkhead> connectionBulkheads = new EnumMap<>(TrafficClass.class);
+
+    @PostConstruct
+    public void init() {
+        int otherConnections = 0;
+        int checkoutConnections = 0;
+        int requestThreads = 0;
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            String prefix = "app.bulkhead." + trafficClass.name().toLowerCase() + ".";
+            String tag = trafficClass.name().toLowerCase();
+            int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, 50);
+            int maxQueue = environment.getProperty(prefix + "max-queue", Integer.class, 50);
+            int maxConnections = environment.getProperty(prefix + "max-connections", Integer.class, 10);
+            requestBulkheads.put(trafficClass, new Bulkhead(tag, "requests", maxConcurrent, maxQueue,
+                    environment.getProperty(prefix + "max-wait-ms", Long.class, 1000L),
+                    meterRegistry));
+            // Connection waiters are already bounded by the request budget
+            connectionBulkheads.put(trafficClass, new Bulkhead(tag, "connections", maxConnections,
+                    Integer.MAX_VALUE,
+                    environment.getProperty(prefix + "connection-wait-ms", Long.class, 1000L),
+                    meterRegistry));
+
+            requestThreads += maxConcurrent + maxQueue;
+            if (trafficClass == TrafficClass.CHECKOUT) {
+                checkoutConnections = maxConnections;
+            } else {
+                otherConnections += maxConnections;
+            }
+        }
+
+        // Budgets that add up to more than the pool or Tomcat has let other classes starve checkout
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int tomcatThreads = environment.getProperty("server.tomcat.threads.max", Integer.class, 200);
+        if (otherConnections > poolSize - checkoutConnections) {
+            System.err.println("Bulkhead connection budgets do not isolate checkout: other classes may take "
+                    + otherConnections + " of " + poolSize + " pooled connections, checkout needs " + checkoutConnections);
+        }
+        if (requestThreads >= tomcatThreads) {
+            System.err.println("Bulkhead request budgets do not isolate checkout: classes may hold "
+                    + requestThreads + " request threads, Tomcat has " + tomcatThreads);
+        }
+    }
+
+    public static TrafficClass currentClass() {
+        return CURRENT_CLASS.get();
+    }
+
+    static void setCurrentClass(TrafficClass trafficClass) {
+        if (trafficClass == null) {
+            CURRENT_CLASS.remove();
+        } else {
+            CURRENT_CLASS.set(trafficClass);
+        }
+    }
+
+    public Bulkhead requests(TrafficClass trafficClass) {
+        return requestBulkheads.get(trafficClass);
+    }
+
+    public Bulkhead connections(TrafficClass trafficClass) {
+        return connectionBulkheads.get(trafficClass);
+    }
+}
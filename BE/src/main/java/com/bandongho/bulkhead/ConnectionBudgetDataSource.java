@@ -0,0 +1,76 @@
+package com.bandongho.bulkhead;
+
+import com.bandongho.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Charges each pooled connection taken on a request thread to that request's traffic class, and
+// gives the permit back when the connection is closed. Background threads (schedulers, the
+// checkout writer, lease renewal) are not classified and use the pool directly.
+public class ConnectionBudgetDataSource extends DelegatingDataSource {
+
+    // Resolved on first use: the pool is built long before the registry's dependencies are ready
+    private final ObjectProvider<BulkheadRegistry> bulkheadRegistry;
+
+    public ConnectionBudgetDataSource(DataSource target, ObjectProvider<BulkheadRegistry> bulkheadRegistry) {
+        super(target);
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return charge(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return charge(() -> super.getConnection(username, password));
+    }
+
+    private Connection charge(ConnectionSupplier supplier) throws SQLException {
+        TrafficClass trafficClass = BulkheadRegistry.currentClass();
+        if (trafficClass == null) {
+            return supplier.get();
+        }
+        Bulkhead bulkhead = bulkheadRegistry.getObject().connections(trafficClass);
+        if (!bulkhead.tryEnter()) {
+            throw new ServiceUnavailableException("Database is busy with " + trafficClass.name().toLowerCase()
+                    + " requests, please retry");
+        }
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.exit();
+            throw e;
+        }
+        return budgeted(connection, bulkhead);
+    }
+
+    private Connection budgeted(Connection connection, Bulkhead bulkhead) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        bulkhead.exit();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bandongho.bulkhead;
+
+// Request classes with their own thread and connection budgets. Paths are relative to the
+// /api context path.
+public enum TrafficClass {
+    STOREFRONT,
+    CHECKOUT,
+    ADMIN,
+    EXPORT;
+
+    public static TrafficClass classify(String method, String path) {
+        if (path.contains("/export") || path.contains("/bulk") || path.contains("/import")
+                || path.equals("/inventory/reconcile")) {
+            return EXPORT;
+        }
+        if (path.startsWith("/reservations")
+                || ("POST".equals(method) && (path.equals("/orders") || path.equals("/orders/checkout")))) {
+            return CHECKOUT;
+        }
+        if (isAdmin(method, path)) {
+            return ADMIN;
+        }
+        return STOREFRONT;
+    }
+
+    private static boolean isAdmin(String method, String path) {
+        if (path.startsWith("/inventory")) {
+            return true;
+        }
+        // Listing and searching all orders or users scans whole tables
+        if ("GET".equals(method)) {
+            return path.equals("/orders") || path.startsWith("/orders/search")
+                    || path.equals("/users") || path.startsWith("/users/search");
+        }
+        // Catalog and order maintenance; customers only write their cart, account and checkout
+        return path.startsWith("/products") || path.startsWith("/categories")
+                || (path.startsWith("/orders") && !"POST".equals(method))
+                || ("DELETE".equals(method) && path.startsWith("/users"));
+    }
+}
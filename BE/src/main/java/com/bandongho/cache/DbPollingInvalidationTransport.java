@@ -0,0 +1,110 @@
+package com.bandongho.cache;
+
+import com.bandongho.aspects.ClusterJob;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.repositories.CacheInvalidationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Default transport: invalidations are rows in cache_invalidations, written in the same transaction
+// as the change, and every node polls for rows above the highest id it has delivered. Ids are
+// handed out at insert but become visible at commit, so an id skipped by a poll may still belong to
+// a transaction in flight: it is kept as a gap and looked up again on every poll until it shows up,
+// or until gap-timeout-ms has passed and it is taken for a rolled-back insert. Gaps are timed on this
+// node's own clock and created_at is set by the database, so clock skew between nodes plays no part.
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "db", matchIfMissing = true)
+public class DbPollingInvalidationTransport implements InvalidationTransport {
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Value("${app.cache.invalidation.poll-batch-size:1000}")
+    private int pollBatchSize;
+
+    // Longer than any write transaction that publishes invalidations
+    @Value("${app.cache.invalidation.gap-timeout-ms:120000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.cache.invalidation.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private volatile Consumer<List<InvalidationMessage>> receiver;
+
+    // Highest id delivered; -1 until the first poll
+    private long lastSeenId = -1;
+
+    // Skipped ids below lastSeenId, with the nanoTime they were first missed at
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        // created_at is left to the database default
+        cacheInvalidationRepository.save(new CacheInvalidation(null, message.getEntityType(), message.getEntityId(),
+                message.getOriginNode(), null));
+    }
+
+    @Override
+    public void subscribe(Consumer<List<InvalidationMessage>> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval-ms:500}")
+    public synchronized void poll() {
+        Consumer<List<InvalidationMessage>> target = receiver;
+        if (target == null) {
+            return;
+        }
+        try {
+            if (lastSeenId < 0) {
+                // Caches start empty, so history before startup is irrelevant
+                Long maxId = cacheInvalidationRepository.findMaxId();
+                lastSeenId = maxId != null ? maxId : 0L;
+                target.accept(List.of());
+                return;
+            }
+
+            List<InvalidationMessage> messages = new ArrayList<>();
+            long now = System.nanoTime();
+            if (!gaps.isEmpty()) {
+                for (CacheInvalidation row : cacheInvalidationRepository.findAllById(List.copyOf(gaps.keySet()))) {
+                    gaps.remove(row.getId());
+                    messages.add(toMessage(row));
+                }
+                gaps.values().removeIf(missedAt -> now - missedAt > gapTimeoutMs * 1_000_000L);
+            }
+
+            for (CacheInvalidation row : cacheInvalidationRepository.findAfter(lastSeenId, PageRequest.of(0, pollBatchSize))) {
+                for (long missing = lastSeenId + 1; missing < row.getId(); missing++) {
+                    gaps.put(missing, now);
+                }
+                lastSeenId = row.getId();
+                messages.add(toMessage(row));
+            }
+
+            target.accept(messages);
+        } catch (RuntimeException e) {
+            System.err.println("Error polling cache invalidations: " + e.getMessage());
+        }
+    }
+
+    private static InvalidationMessage toMessage(CacheInvalidation row) {
+        return new InvalidationMessage(row.getEntityType(), row.getEntityId(), row.getOriginNode(), row.getCreatedAt());
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.prune-interval-ms:600000}")
+    @ClusterJob(name = "cache-invalidation-prune", keepMs = "${app.cache.invalidation.prune-lease-keep-ms:300000}")
+    public void prune() {
+        cacheInvalidationRepository.deleteOlderThanMinutes(retentionMinutes);
+    }
+}
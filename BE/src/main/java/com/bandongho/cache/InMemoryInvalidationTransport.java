@@ -0,0 +1,67 @@
+package com.bandongho.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Delivers invalidations to every application context in the same JVM, so several nodes can be
+// started side by side in one process (for example to check coherence) without a database poller.
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "memory")
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private static final List<Consumer<List<InvalidationMessage>>> RECEIVERS = new CopyOnWriteArrayList<>();
+
+    private volatile Consumer<List<InvalidationMessage>> receiver;
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deliver(message);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<List<InvalidationMessage>> receiver) {
+        this.receiver = receiver;
+        RECEIVERS.add(receiver);
+    }
+
+    // Delivery is synchronous, so the transport is always up to date
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval-ms:500}")
+    public void heartbeat() {
+        Consumer<List<InvalidationMessage>> target = receiver;
+        if (target != null) {
+            target.accept(List.of());
+        }
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        RECEIVERS.remove(receiver);
+    }
+
+    private static void deliver(InvalidationMessage message) {
+        for (Consumer<List<InvalidationMessage>> target : RECEIVERS) {
+            try {
+                target.accept(List.of(message));
+            } catch (RuntimeException e) {
+                System.err.println("Error delivering cache invalidation: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bandongho.cache;
+
+import com.bandongho.entities.CacheInvalidation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationMessage {
+    private CacheInvalidation.EntityType entityType;
+    private Long entityId;
+    private String originNode;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.bandongho.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Carries invalidations between nodes. publish() is called inside the writer's transaction;
+// implementations must only deliver the message if that transaction commits. The receiver is
+// called with every batch of messages from any node (including this one) and also with an empty
+// list whenever the transport has confirmed it is up to date, so the bus can measure staleness.
+public interface InvalidationTransport {
+    void publish(InvalidationMessage message);
+    void subscribe(Consumer<List<InvalidationMessage>> receiver);
+}
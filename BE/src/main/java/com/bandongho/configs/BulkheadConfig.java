@@ -0,0 +1,28 @@
+package com.bandongho.configs;
+
+import com.bandongho.bulkhead.BulkheadRegistry;
+import com.bandongho.bulkhead.ConnectionBudgetDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class BulkheadConfig {
+
+    // Wraps the pool so JPA and JdbcTemplate go through the per-class connection budgets
+    @Bean
+    public static BeanPostProcessor connectionBudgetPostProcessor(ObjectProvider<BulkheadRegistry> bulkheadRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionBudgetDataSource)) {
+                    return new ConnectionBudgetDataSource(dataSource, bulkheadRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+}
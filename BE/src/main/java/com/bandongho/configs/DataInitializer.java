@@ -6,9 +6,13 @@ import com.bandongho.entities.User;
 import com.bandongho.repositories.CategoryRepository;
 import com.bandongho.repositories.ProductRepository;
 import com.bandongho.repositories.UserRepository;
+import com.bandongho.services.LeaseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 
@@ -24,12 +28,26 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.jobs.lease-ms:60000}")
+    private long leaseMs;
+
     @Override
     public void run(String... args) throws Exception {
-        // Chỉ tạo dữ liệu mẫu nếu database trống
-        if (categoryRepository.count() == 0) {
-            initializeData();
-        }
+        // Nodes starting together seed under one lease; the others skip or find the data already there
+        leaseService.runExclusive("data-initializer", leaseMs, 0, lease ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    leaseService.assertHeld(lease);
+                    // Chỉ tạo dữ liệu mẫu nếu database trống
+                    if (categoryRepository.count() == 0) {
+                        initializeData();
+                    }
+                }));
     }
 
     private void initializeData() {
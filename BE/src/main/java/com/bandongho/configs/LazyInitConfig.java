@@ -0,0 +1,32 @@
+package com.bandongho.configs;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Configuration
+public class LazyInitConfig {
+
+    // With spring.main.lazy-initialization=true, beans with @Scheduled methods would never be scheduled
+    // and startup listeners (warm-up, index loads, timer re-arming) would only run once something else
+    // touched the bean, so those stay eager.
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> {
+            AtomicBoolean eager = new AtomicBoolean(false);
+            ReflectionUtils.doWithMethods(beanType, method -> {
+                if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)) {
+                    eager.set(true);
+                }
+            });
+            return eager.get();
+        };
+    }
+}
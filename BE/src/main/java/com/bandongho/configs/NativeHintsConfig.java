@@ -0,0 +1,48 @@
+package com.bandongho.configs;
+
+import com.bandongho.monitoring.SlowRequestTracker;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.sql.Connection;
+import java.util.regex.Pattern;
+
+// Reachability metadata for the native image (mvn -Pnative native:compile) that Spring AOT cannot
+// infer from the bean definitions: DTOs that only reach Jackson through generics or async returns,
+// the JDK proxy around pooled connections, and the Jakarta Mail provider files.
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.ApplicationRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final String[] JSON_PACKAGES = {"com.bandongho.dtos", "com.bandongho.events"};
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Runs at build time, so scanning the classpath here costs nothing at startup
+            BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter(new RegexPatternTypeFilter(Pattern.compile(".*")));
+            for (String basePackage : JSON_PACKAGES) {
+                for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                    bindingHints.registerReflectionHints(hints.reflection(),
+                            ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+                }
+            }
+            bindingHints.registerReflectionHints(hints.reflection(), SlowRequestTracker.SlowRequest.class);
+
+            hints.proxies().registerJdkProxy(Connection.class);
+
+            hints.resources().registerPattern("META-INF/javamail.*");
+            hints.resources().registerPattern("META-INF/mailcap*");
+        }
+    }
+}
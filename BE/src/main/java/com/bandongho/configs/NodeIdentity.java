@@ -0,0 +1,23 @@
+package com.bandongho.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// Identifies this application instance among the nodes sharing the database
+@Component
+public class NodeIdentity {
+
+    private final String nodeId;
+
+    public NodeIdentity(@Value("${app.node-id:}") String configuredNodeId) {
+        this.nodeId = configuredNodeId == null || configuredNodeId.isBlank()
+                ? UUID.randomUUID().toString()
+                : configuredNodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
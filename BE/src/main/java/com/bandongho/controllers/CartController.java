@@ -0,0 +1,52 @@
+package com.bandongho.controllers;
+
+import com.bandongho.dtos.ApiResponse;
+import com.bandongho.dtos.CartDTO;
+import com.bandongho.dtos.CartItemDTO;
+import com.bandongho.services.CartService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/carts")
+@CrossOrigin(origins = "*")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @GetMapping("/{userId}")
+    public ResponseEntity<ApiResponse<CartDTO>> getCart(@PathVariable Long userId) {
+        CartDTO cart = cartService.getCart(userId);
+        return ResponseEntity.ok(ApiResponse.success(cart));
+    }
+
+    @PostMapping("/{userId}/items")
+    public ResponseEntity<ApiResponse<CartDTO>> addItem(@PathVariable Long userId, @Valid @RequestBody CartItemDTO item) {
+        CartDTO cart = cartService.addItem(userId, item.getProductId(), item.getQuantity());
+        return ResponseEntity.ok(ApiResponse.success("Item added to cart", cart));
+    }
+
+    @PutMapping("/{userId}/items/{productId}")
+    public ResponseEntity<ApiResponse<CartDTO>> updateItem(
+            @PathVariable Long userId,
+            @PathVariable Long productId,
+            @RequestParam Integer quantity) {
+        CartDTO cart = cartService.updateItem(userId, productId, quantity);
+        return ResponseEntity.ok(ApiResponse.success("Cart updated successfully", cart));
+    }
+
+    @DeleteMapping("/{userId}/items/{productId}")
+    public ResponseEntity<ApiResponse<CartDTO>> removeItem(@PathVariable Long userId, @PathVariable Long productId) {
+        CartDTO cart = cartService.removeItem(userId, productId);
+        return ResponseEntity.ok(ApiResponse.success("Item removed from cart", cart));
+    }
+
+    @DeleteMapping("/{userId}")
+    public ResponseEntity<ApiResponse<CartDTO>> clearCart(@PathVariable Long userId) {
+        CartDTO cart = cartService.clearCart(userId);
+        return ResponseEntity.ok(ApiResponse.success("Cart cleared successfully", cart));
+    }
+}
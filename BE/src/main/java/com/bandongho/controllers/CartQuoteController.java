@@ -0,0 +1,26 @@
+package com.bandongho.controllers;
+
+import com.bandongho.dtos.ApiResponse;
+import com.bandongho.dtos.CartItemDTO;
+import com.bandongho.dtos.CartQuoteDTO;
+import com.bandongho.services.CartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cart")
+@CrossOrigin(origins = "*")
+public class CartQuoteController {
+
+    @Autowired
+    private CartService cartService;
+
+    @PostMapping("/quote")
+    public ResponseEntity<ApiResponse<CartQuoteDTO>> quote(@RequestBody List<CartItemDTO> items) {
+        CartQuoteDTO quote = cartService.quote(items);
+        return ResponseEntity.ok(ApiResponse.success(quote));
+    }
+}
@@ -0,0 +1,33 @@
+package com.bandongho.controllers;
+
+import com.bandongho.services.ImageService;
+import com.bandongho.utils.ZeroCopyFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/images")
+@CrossOrigin(origins = "*")
+public class ImageController {
+
+    @Autowired
+    private ImageService imageService;
+
+    @Value("${app.images.cache-max-age-seconds:31536000}")
+    private long cacheMaxAgeSeconds;
+
+    // File names are content hashes, so a URL never changes meaning and can be cached forever
+    @GetMapping("/{fileName:.+}")
+    public void getImage(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = imageService.resolveFile(fileName);
+        String etag = "\"" + fileName.substring(0, fileName.indexOf('.')) + "\"";
+        ZeroCopyFileSender.send(request, response, file, imageService.getContentType(fileName), etag,
+                "public, max-age=" + cacheMaxAgeSeconds + ", immutable");
+    }
+}
@@ -0,0 +1,46 @@
+package com.bandongho.controllers;
+
+import com.bandongho.dtos.ApiResponse;
+import com.bandongho.dtos.InventoryStatusDTO;
+import com.bandongho.dtos.ReconciliationReportDTO;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.services.InventoryLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/inventory")
+@CrossOrigin(origins = "*")
+public class InventoryController {
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ApiResponse<InventoryStatusDTO>> getInventoryStatus(@PathVariable Long productId) {
+        InventoryStatusDTO status = inventoryLedgerService.getInventoryStatus(productId);
+        return ResponseEntity.ok(ApiResponse.success(status));
+    }
+
+    @PostMapping("/compact")
+    public ResponseEntity<ApiResponse<Integer>> compact() {
+        int compacted = inventoryLedgerService.compact();
+        return ResponseEntity.ok(ApiResponse.success("Inventory ledger compacted", compacted));
+    }
+
+    @PostMapping("/reconcile")
+    public ResponseEntity<ApiResponse<ReconciliationReportDTO>> reconcile() {
+        ReconciliationReportDTO report = inventoryLedgerService.reconcile();
+        if (report == null) {
+            throw new BusinessException("Inventory reconciliation is running or has just run on another node");
+        }
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ApiResponse<ReconciliationReportDTO>> getLastReconciliation() {
+        ReconciliationReportDTO report = inventoryLedgerService.getLastReconciliation();
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+}
@@ -1,8 +1,13 @@
 package com.bandongho.controllers;
 
 import com.bandongho.dtos.ApiResponse;
+import com.bandongho.dtos.BulkOrderStatusRequest;
+import com.bandongho.dtos.BulkOrderStatusResultDTO;
 import com.bandongho.dtos.CheckoutRequest;
+import com.bandongho.dtos.CursorPageDTO;
 import com.bandongho.dtos.OrderDTO;
+import com.bandongho.services.CheckoutPipelineService;
+import com.bandongho.services.IdempotencyService;
 import com.bandongho.services.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/orders")
@@ -20,24 +26,52 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private CheckoutPipelineService checkoutPipelineService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/checkout")
-    public ResponseEntity<ApiResponse<OrderDTO>> checkout(@Valid @RequestBody CheckoutRequest request) {
-        OrderDTO order = orderService.createOrder(request, request.getCartItems());
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Order created successfully", order));
+    public CompletableFuture<ResponseEntity<ApiResponse<OrderDTO>>> checkout(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CheckoutRequest request) {
+        // With group commit enabled the order is committed together with others by the checkout writer
+        return idempotencyService.execute(idempotencyKey, "checkout", request, OrderDTO.class, () -> checkoutPipelineService.isEnabled()
+                        ? checkoutPipelineService.submit(request)
+                        : CompletableFuture.completedFuture(orderService.createOrder(request, request.getCartItems())))
+                .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(ApiResponse.success("Order created successfully", order)));
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<OrderDTO>> createOrder(@Valid @RequestBody CheckoutRequest request) {
-        OrderDTO order = orderService.createOrder(request, request.getCartItems());
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Order created successfully", order));
+    public CompletableFuture<ResponseEntity<ApiResponse<OrderDTO>>> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CheckoutRequest request) {
+        return idempotencyService.execute(idempotencyKey, "createOrder", request, OrderDTO.class,
+                        () -> CompletableFuture.completedFuture(orderService.createOrder(request, request.getCartItems())))
+                .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(ApiResponse.success("Order created successfully", order)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<OrderDTO>> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderDTO orderDTO) {
-        OrderDTO updatedOrder = orderService.updateOrder(id, orderDTO);
-        return ResponseEntity.ok(ApiResponse.success("Order updated successfully", updatedOrder));
+    public CompletableFuture<ResponseEntity<ApiResponse<OrderDTO>>> updateOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @PathVariable Long id,
+            @Valid @RequestBody OrderDTO orderDTO) {
+        return idempotencyService.execute(idempotencyKey, "updateOrder:" + id, orderDTO, OrderDTO.class,
+                        () -> CompletableFuture.completedFuture(orderService.updateOrder(id, orderDTO)))
+                .thenApply(updatedOrder -> ResponseEntity.ok(ApiResponse.success("Order updated successfully", updatedOrder)));
+    }
+
+    // Moves many orders to one status, e.g. a day's shipments to DELIVERED
+    @PutMapping("/bulk/status")
+    public CompletableFuture<ResponseEntity<ApiResponse<BulkOrderStatusResultDTO>>> bulkUpdateStatus(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody BulkOrderStatusRequest request) {
+        return idempotencyService.execute(idempotencyKey, "bulkUpdateOrderStatus", request, BulkOrderStatusResultDTO.class,
+                        () -> CompletableFuture.completedFuture(orderService.bulkUpdateStatus(request)))
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.success("Order statuses updated", result)));
     }
 
     @PutMapping("/{orderId}/items/{orderItemId}")
@@ -73,12 +107,31 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<ApiResponse<CursorPageDTO<OrderDTO>>> getOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        CursorPageDTO<OrderDTO> page = orderService.getOrderHistory(userId, cursor, size, summary);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<OrderDTO>>> searchOrders(@RequestParam String keyword) {
         List<OrderDTO> orders = orderService.searchOrders(keyword);
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
+    @GetMapping("/search/page")
+    public ResponseEntity<ApiResponse<CursorPageDTO<OrderDTO>>> searchOrdersPage(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageDTO<OrderDTO> page = orderService.searchOrders(keyword, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Object>> deleteOrder(@PathVariable Long id) {
         orderService.deleteOrder(id);
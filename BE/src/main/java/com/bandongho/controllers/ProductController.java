@@ -1,14 +1,26 @@
 package com.bandongho.controllers;
 
 import com.bandongho.dtos.ApiResponse;
+import com.bandongho.dtos.BulkProductUpdateRequest;
+import com.bandongho.dtos.BulkProductUpdateResultDTO;
 import com.bandongho.dtos.ProductDTO;
+import com.bandongho.dtos.ProductImportReportDTO;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.services.ImageService;
+import com.bandongho.services.ProductImportService;
 import com.bandongho.services.ProductService;
+import com.bandongho.services.RecommendationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,6 +31,15 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ImageService imageService;
+
     @PostMapping
     public ResponseEntity<ApiResponse<ProductDTO>> createProduct(@Valid @RequestBody ProductDTO productDTO) {
         ProductDTO createdProduct = productService.createProduct(productDTO);
@@ -26,18 +47,60 @@ public class ProductController {
                 .body(ApiResponse.success("Product created successfully", createdProduct));
     }
 
+    // Streams the request body: text/csv with a header row, or one JSON product per line (application/x-ndjson).
+    // Rows are upserted by SKU; bad rows are reported and skipped.
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<ProductImportReportDTO>> importProducts(
+            HttpServletRequest request,
+            @RequestParam(required = false) String format) throws IOException {
+        ProductImportService.Format importFormat = resolveImportFormat(format, request.getContentType());
+        try (InputStream input = request.getInputStream()) {
+            ProductImportReportDTO report = productImportService.importProducts(input, importFormat);
+            return ResponseEntity.ok(ApiResponse.success("Product import finished", report));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<ProductDTO>> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductDTO productDTO) {
         ProductDTO updatedProduct = productService.updateProduct(id, productDTO);
         return ResponseEntity.ok(ApiResponse.success("Product updated successfully", updatedProduct));
     }
 
+    // Price/stock changes for many products in one transaction, e.g. a stocktake or "category X +5%"
+    @PutMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkProductUpdateResultDTO>> bulkUpdate(@Valid @RequestBody BulkProductUpdateRequest request) {
+        BulkProductUpdateResultDTO result = productService.bulkUpdate(request);
+        return ResponseEntity.ok(ApiResponse.success("Products updated successfully", result));
+    }
+
+    // Stores the original and returns at once; srcset is filled in when the resized variants are ready
+    @PostMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ProductDTO>> uploadImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        ProductDTO updatedProduct = imageService.uploadProductImage(id, file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Image uploaded successfully", updatedProduct));
+    }
+
+    @PutMapping("/{id}/stock-shards")
+    public ResponseEntity<ApiResponse<ProductDTO>> configureStockShards(@PathVariable Long id, @RequestParam int shards) {
+        ProductDTO updatedProduct = productService.configureStockShards(id, shards);
+        return ResponseEntity.ok(ApiResponse.success("Stock shards updated successfully", updatedProduct));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ProductDTO>> getProductById(@PathVariable Long id) {
         ProductDTO product = productService.getProductById(id);
         return ResponseEntity.ok(ApiResponse.success(product));
     }
 
+    @GetMapping("/{id}/related")
+    public ResponseEntity<ApiResponse<List<ProductDTO>>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "4") int limit) {
+        List<ProductDTO> products = recommendationService.getRelatedProducts(id, limit);
+        return ResponseEntity.ok(ApiResponse.success(products));
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts() {
         List<ProductDTO> products = productService.getAllProducts();
@@ -69,5 +132,15 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok(ApiResponse.success("Product deleted successfully", null));
     }
-}
 
+    private ProductImportService.Format resolveImportFormat(String format, String contentType) {
+        String type = (format != null ? format : contentType != null ? contentType : "").toLowerCase();
+        if (type.contains("csv")) {
+            return ProductImportService.Format.CSV;
+        }
+        if (type.contains("json")) {
+            return ProductImportService.Format.NDJSON;
+        }
+        throw new BusinessException("Unsupported import format; send text/csv or application/x-ndjson");
+    }
+}
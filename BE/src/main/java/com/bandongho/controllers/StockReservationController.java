@@ -0,0 +1,38 @@
+package com.bandongho.controllers;
+
+import com.bandongho.dtos.ApiResponse;
+import com.bandongho.dtos.StockReservationDTO;
+import com.bandongho.services.StockReservationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/reservations")
+@CrossOrigin(origins = "*")
+public class StockReservationController {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<StockReservationDTO>> reserve(@Valid @RequestBody StockReservationDTO reservationDTO) {
+        StockReservationDTO reservation = stockReservationService.reserve(reservationDTO);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Stock reserved successfully", reservation));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<StockReservationDTO>> getReservation(@PathVariable Long id) {
+        StockReservationDTO reservation = stockReservationService.getReservation(id);
+        return ResponseEntity.ok(ApiResponse.success(reservation));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Object>> release(@PathVariable Long id) {
+        stockReservationService.release(id);
+        return ResponseEntity.ok(ApiResponse.success("Reservation released successfully", null));
+    }
+}
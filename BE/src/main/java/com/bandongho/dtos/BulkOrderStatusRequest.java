@@ -0,0 +1,21 @@
+package com.bandongho.dtos;
+
+import com.bandongho.entities.Order;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequest {
+    @NotEmpty(message = "Order IDs are required")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Status is required")
+    private Order.OrderStatus status;
+}
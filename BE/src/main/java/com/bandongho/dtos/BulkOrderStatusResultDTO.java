@@ -0,0 +1,21 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResultDTO {
+    private int updated;
+    // Already in the requested status
+    private int unchanged;
+    private List<Long> notFound = new ArrayList<>();
+    // Current status does not allow moving to the requested one
+    private List<Long> rejected = new ArrayList<>();
+    private long durationMs;
+}
@@ -0,0 +1,27 @@
+package com.bandongho.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateRequest {
+    // Explicit changes, applied after the category rule
+    @Valid
+    private List<ProductChangeDTO> changes;
+
+    // Category rule: every product in categoryId gets its price changed by pricePercent (5 = +5%, -10 = -10%)
+    private Long categoryId;
+
+    @DecimalMin(value = "-100", inclusive = false, message = "Price percent must be greater than -100")
+    @DecimalMax(value = "1000", message = "Price percent must be less than or equal to 1000")
+    private BigDecimal pricePercent;
+}
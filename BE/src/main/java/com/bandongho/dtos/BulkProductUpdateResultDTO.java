@@ -0,0 +1,14 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateResultDTO {
+    private int repricedByRule;
+    private int changed;
+    private long durationMs;
+}
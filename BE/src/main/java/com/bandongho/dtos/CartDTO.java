@@ -0,0 +1,18 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDTO {
+    private Long userId;
+    private List<CartItemDTO> items = new ArrayList<>();
+    private BigDecimal totalAmount;
+}
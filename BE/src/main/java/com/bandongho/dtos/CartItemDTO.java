@@ -1,5 +1,7 @@
 package com.bandongho.dtos;
 
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,11 +12,16 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CartItemDTO {
+    @NotNull(message = "Product ID is required")
     private Long productId;
     private String productName;
     private String productImageUrl;
     private BigDecimal price;
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
     private BigDecimal subtotal;
+    private Integer stock;
+    private Boolean available;
 }
 
@@ -3,7 +3,6 @@ package com.bandongho.dtos;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -23,8 +22,11 @@ public class CheckoutRequest {
     @NotBlank(message = "Phone number is required")
     private String phoneNumber;
 
+    // When empty the user's server-side cart is checked out
     @Valid
-    @NotEmpty(message = "Cart items are required")
     private List<OrderItemDTO> cartItems;
+
+    // Optional stock hold taken when the checkout page was opened
+    private Long reservationId;
 }
 
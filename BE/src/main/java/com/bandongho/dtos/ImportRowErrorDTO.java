@@ -0,0 +1,15 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDTO {
+    // 1-based record number in the file, header excluded
+    private long row;
+    private String sku;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.bandongho.dtos;
+
+import com.bandongho.entities.InventoryMovement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovementDTO {
+    private Long id;
+    private Long productId;
+    private Integer delta;
+    private InventoryMovement.MovementType type;
+    private String reference;
+    private LocalDateTime createdAt;
+}
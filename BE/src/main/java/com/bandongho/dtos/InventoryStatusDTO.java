@@ -0,0 +1,20 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryStatusDTO {
+    private Long productId;
+    private Integer productStock;
+    private Integer ledgerStock;
+    private Integer snapshotStock;
+    private Long snapshotLastMovementId;
+    private List<InventoryMovementDTO> recentMovements = new ArrayList<>();
+}
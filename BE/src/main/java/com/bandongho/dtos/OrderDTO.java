@@ -42,6 +42,9 @@ public class OrderDTO {
     @NotBlank(message = "Phone number is required")
     private String phoneNumber;
 
+    // Version the client last read; updates sent with an older one are rejected with 409
+    private Long version;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,27 @@
+package com.bandongho.dtos;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One row of a bulk update; a null price or stock leaves that value unchanged
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeDTO {
+    @NotNull(message = "Product ID is required")
+    private Long id;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
+    @DecimalMax(value = "99999999.99", message = "Price must be less than or equal to 99999999.99")
+    private BigDecimal price;
+
+    @Min(value = 0, message = "Stock must be greater than or equal to 0")
+    private Integer stock;
+}
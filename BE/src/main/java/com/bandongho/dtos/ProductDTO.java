@@ -5,6 +5,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,6 +19,9 @@ import java.time.LocalDateTime;
 public class ProductDTO {
     private Long id;
 
+    @Size(max = 64, message = "SKU must be at most 64 characters")
+    private String sku;
+
     @NotBlank(message = "Product name is required")
     private String name;
 
@@ -33,6 +37,12 @@ public class ProductDTO {
 
     private String imageUrl;
 
+    // Read-only: resized JPEG variants of imageUrl
+    private String srcset;
+
+    @Min(value = 0, message = "Stock shards must be greater than or equal to 0")
+    private Integer stockShards;
+
     @DecimalMin(value = "0.0", message = "Rating must be greater than or equal to 0")
     @DecimalMax(value = "5.0", message = "Rating must be less than or equal to 5")
     private Double rating;
@@ -45,6 +55,9 @@ public class ProductDTO {
 
     private String categoryName;
 
+    // Version the client last read; updates sent with an older one are rejected with 409
+    private Long version;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
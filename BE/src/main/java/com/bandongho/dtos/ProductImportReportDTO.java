@@ -0,0 +1,23 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReportDTO {
+    private long totalRows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    // Capped; failed has the full number
+    private List<ImportRowErrorDTO> errors = new ArrayList<>();
+    private long durationMs;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,21 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReportDTO {
+    private int checkedProducts;
+    private int mismatchCount;
+    // Capped; mismatchCount has the full number
+    private List<StockMismatchDTO> mismatches = new ArrayList<>();
+    private long durationMs;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,14 @@
+package com.bandongho.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMismatchDTO {
+    private Long productId;
+    private Integer productStock;
+    private Integer ledgerStock;
+}
@@ -0,0 +1,28 @@
+package com.bandongho.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationDTO {
+    private Long id;
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @Valid
+    @NotEmpty(message = "Reservation items are required")
+    private List<OrderItemDTO> items = new ArrayList<>();
+
+    private LocalDateTime expiresAt;
+}
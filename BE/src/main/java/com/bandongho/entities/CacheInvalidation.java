@@ -0,0 +1,41 @@
+package com.bandongho.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Change table for the database invalidation transport: one row per entity write, read by every node
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, columnDefinition = "VARCHAR(32)")
+    private EntityType entityType;
+
+    // null = every entry of this type
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "origin_node", nullable = false, length = 64)
+    private String originNode;
+
+    // Set by the column default, on the database clock
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum EntityType {
+        PRODUCT, CATEGORY, USER, CART, ORDER
+    }
+}
@@ -0,0 +1,31 @@
+package com.bandongho.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Persisted copy of a user's cart, written behind by CartServiceImpl. Lines are stored as
+// "productId:quantity" pairs separated by commas so a whole cart is one row and one batched upsert.
+@Entity
+@Table(name = "carts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cart {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String items;
+
+    // Checked and bumped by every flush, so a node holding an older copy cannot overwrite a newer cart
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,48 @@
+package com.bandongho.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "inventory_movements", indexes = {
+        @Index(name = "idx_inventory_movements_product", columnList = "product_id, id"),
+        @Index(name = "idx_inventory_movements_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Signed change to stock; ADMIN_SET rows store the difference to the new absolute value
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "VARCHAR(32)")
+    private MovementType type;
+
+    @Column(columnDefinition = "VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci")
+    private String reference;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum MovementType {
+        SALE, ADJUSTMENT, CANCELLATION_RESTOCK, ADMIN_SET, RESERVATION, RESERVATION_RELEASE
+    }
+}
@@ -0,0 +1,33 @@
+package com.bandongho.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per cluster-wide job. The holder is whoever last moved fencing_token forward while the
+// previous lease was expired; expires_at is always compared against the database clock.
+@Entity
+@Table(name = "job_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Column(name = "fencing_token", nullable = false)
+    private Long fencingToken;
+
+    @Column(name = "expires_at", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "acquired_at", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime acquiredAt;
+}
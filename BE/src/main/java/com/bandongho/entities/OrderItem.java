@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_product", columnList = "product_id, order_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
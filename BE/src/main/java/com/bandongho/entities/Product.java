@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category", columnList = "category_id"),
+        @Index(name = "uk_products_sku", columnList = "sku", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +23,9 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(length = 64)
+    private String sku;
+
     @Column(nullable = false, columnDefinition = "VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci")
     private String name;
 
@@ -35,10 +41,18 @@ public class Product {
     @Column(name = "image_url", columnDefinition = "VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci")
     private String imageUrl;
 
+    // "url 320w, url 640w, ..." of the generated variants; null until the image worker has run
+    @Column(name = "image_srcset", length = 2000)
+    private String imageSrcset;
+
     private Double rating;
 
     private Integer reviews;
 
+    // 0 = stock lives in this row; > 0 = "hot SKU", stock is split across that many product_stock_shards rows
+    @Column(name = "stock_shards", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer stockShards = 0;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
@@ -46,6 +60,10 @@ public class Product {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -0,0 +1,28 @@
+package com.bandongho.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "product_stock_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_stock_shards", columnNames = {"product_id", "shard_no"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "shard_no", nullable = false)
+    private Integer shardNo;
+
+    @Column(nullable = false)
+    private Integer stock;
+}
@@ -0,0 +1,13 @@
+package com.bandongho.events;
+
+import com.bandongho.entities.CacheInvalidation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Another node changed an entity. entityId == null means every cached entry of the type may be stale.
+@Data
+@AllArgsConstructor
+public class CacheInvalidatedEvent {
+    private CacheInvalidation.EntityType entityType;
+    private Long entityId;
+}
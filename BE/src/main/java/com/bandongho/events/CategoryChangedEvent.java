@@ -0,0 +1,10 @@
+package com.bandongho.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private Long categoryId;
+}
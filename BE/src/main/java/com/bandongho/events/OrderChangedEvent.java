@@ -0,0 +1,14 @@
+package com.bandongho.events;
+
+import com.bandongho.dtos.OrderDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderChangedEvent {
+    private Long orderId;
+
+    // null when the order has been deleted
+    private OrderDTO order;
+}
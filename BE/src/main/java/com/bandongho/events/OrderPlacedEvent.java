@@ -0,0 +1,11 @@
+package com.bandongho.events;
+
+import com.bandongho.dtos.OrderDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderPlacedEvent {
+    private OrderDTO order;
+}
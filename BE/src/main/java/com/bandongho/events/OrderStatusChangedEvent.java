@@ -0,0 +1,15 @@
+package com.bandongho.events;
+
+import com.bandongho.entities.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Orders moved to a new status, by one admin update or a bulk transition
+@Data
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private List<Long> orderIds;
+    private Order.OrderStatus status;
+}
@@ -0,0 +1,14 @@
+package com.bandongho.events;
+
+import com.bandongho.dtos.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private Long productId;
+
+    // null when the product has been deleted
+    private ProductDTO product;
+}
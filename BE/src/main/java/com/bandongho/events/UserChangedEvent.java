@@ -0,0 +1,14 @@
+package com.bandongho.events;
+
+import com.bandongho.dtos.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserChangedEvent {
+    private Long userId;
+
+    // null when the user has been deleted
+    private UserDTO user;
+}
@@ -0,0 +1,7 @@
+package com.bandongho.exceptions;
+
+public class LeaseLostException extends RuntimeException {
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
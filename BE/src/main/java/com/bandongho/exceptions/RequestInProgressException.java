@@ -0,0 +1,7 @@
+package com.bandongho.exceptions;
+
+public class RequestInProgressException extends RuntimeException {
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+}
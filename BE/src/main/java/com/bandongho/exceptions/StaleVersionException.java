@@ -0,0 +1,7 @@
+package com.bandongho.exceptions;
+
+public class StaleVersionException extends RuntimeException {
+    public StaleVersionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bandongho.monitoring;
+
+import com.bandongho.aspects.ConflictRetryAspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "contention")
+public class ContentionEndpoint {
+
+    @Autowired
+    private ConflictRetryAspect conflictRetryAspect;
+
+    @ReadOperation
+    public Map<String, Object> contention() {
+        return Map.of("optimisticLockConflicts", conflictRetryAspect.getTopConflicts(20));
+    }
+}
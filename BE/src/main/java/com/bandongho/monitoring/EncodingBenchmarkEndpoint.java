@@ -0,0 +1,133 @@
+package com.bandongho.monitoring;
+
+import com.bandongho.dtos.ApiResponse;
+import com.bandongho.services.CategoryService;
+import com.bandongho.services.OrderService;
+import com.bandongho.services.ProductService;
+import com.bandongho.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Payload size and serialization CPU of the list responses in JSON, CBOR and Smile, measured on
+// this node with the live data repeated up to the requested list length. CPU is thread CPU time
+// per encode/decode after a few warm-up rounds; gzip sizes show what HTTP compression would send.
+@Component
+@Endpoint(id = "encodings")
+public class EncodingBenchmarkEndpoint {
+
+    private static final int WARM_UP_ROUNDS = 3;
+    // One call runs on a serving node, so its CPU and heap use stay bounded
+    private static final int MAX_ITEMS = 100_000;
+    private static final int MAX_ROUNDS = 100;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @ReadOperation
+    public Map<String, Object> benchmark(@Nullable Integer items, @Nullable Integer rounds) {
+        int size = items != null ? Math.min(MAX_ITEMS, Math.max(1, items)) : 10000;
+        int measuredRounds = rounds != null ? Math.min(MAX_ROUNDS, Math.max(1, rounds)) : 20;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", size);
+        result.put("rounds", measuredRounds);
+        result.put("products", compare(ApiResponse.success(repeat(productService.getAllProducts(), size)), measuredRounds));
+        result.put("categories", compare(ApiResponse.success(repeat(categoryService.getAllCategories(), size)), measuredRounds));
+        result.put("orders", compare(ApiResponse.success(repeat(orderService.getAllOrders(), size)), measuredRounds));
+        result.put("users", compare(ApiResponse.success(repeat(userService.getAllUsers(), size)), measuredRounds));
+        return result;
+    }
+
+    private Map<String, Object> compare(Object payload, int rounds) {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", objectMapper);
+        mappers.put("cbor", cborConverter.getObjectMapper());
+        mappers.put("smile", smileConverter.getObjectMapper());
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Map<String, Object> formats = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+                ObjectMapper mapper = entry.getValue();
+                byte[] encoded = mapper.writeValueAsBytes(payload);
+                for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                    mapper.writeValueAsBytes(payload);
+                    mapper.readTree(encoded);
+                }
+
+                long started = threads.getCurrentThreadCpuTime();
+                for (int i = 0; i < rounds; i++) {
+                    mapper.writeValueAsBytes(payload);
+                }
+                long encodeNanos = (threads.getCurrentThreadCpuTime() - started) / rounds;
+
+                started = threads.getCurrentThreadCpuTime();
+                for (int i = 0; i < rounds; i++) {
+                    mapper.readTree(encoded);
+                }
+                long decodeNanos = (threads.getCurrentThreadCpuTime() - started) / rounds;
+
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("bytes", encoded.length);
+                stats.put("gzipBytes", gzipSize(encoded));
+                stats.put("encodeCpuMicros", encodeNanos / 1000);
+                stats.put("decodeCpuMicros", decodeNanos / 1000);
+                formats.put(entry.getKey(), stats);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return formats;
+    }
+
+    private static <T> List<T> repeat(List<T> sample, int size) {
+        List<T> list = new ArrayList<>(size);
+        while (!sample.isEmpty() && list.size() < size) {
+            list.addAll(sample.subList(0, Math.min(sample.size(), size - list.size())));
+        }
+        return list;
+    }
+
+    private static int gzipSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,99 @@
+package com.bandongho.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Connection pool saturation plus the depth of every thread pool and queue that reports a gauge.
+// Reads values that are already maintained, so calling it costs nothing on the request path.
+@Component
+@Endpoint(id = "pools")
+public class PoolsEndpoint {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public Map<String, Object> pools() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("connectionPool", connectionPool());
+        result.put("threadsAndQueues", threadsAndQueues());
+        return result;
+    }
+
+    private Map<String, Object> connectionPool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        if (hikari == null || hikari.getHikariPoolMXBean() == null) {
+            pool.put("available", false);
+            return pool;
+        }
+        HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+        int max = hikari.getMaximumPoolSize();
+        pool.put("name", hikari.getPoolName());
+        pool.put("active", mxBean.getActiveConnections());
+        pool.put("idle", mxBean.getIdleConnections());
+        pool.put("total", mxBean.getTotalConnections());
+        pool.put("max", max);
+        pool.put("threadsAwaiting", mxBean.getThreadsAwaitingConnection());
+        pool.put("saturation", max > 0 ? (double) mxBean.getActiveConnections() / max : 0);
+
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            pool.put("acquireCount", acquire.count());
+            pool.put("acquireMeanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            pool.put("acquireMaxMs", acquire.max(TimeUnit.MILLISECONDS));
+        }
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").timer();
+        if (usage != null) {
+            pool.put("usageMeanMs", usage.mean(TimeUnit.MILLISECONDS));
+            pool.put("usageMaxMs", usage.max(TimeUnit.MILLISECONDS));
+        }
+        Meter timeouts = meterRegistry.find("hikaricp.connections.timeout").meter();
+        if (timeouts != null) {
+            timeouts.measure().forEach(measurement -> pool.put("timeouts", measurement.getValue()));
+        }
+        return pool;
+    }
+
+    // executor.* (Spring task executors/schedulers), tomcat.threads.* and the application's queue gauges
+    private Map<String, Double> threadsAndQueues() {
+        Map<String, Double> values = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            if (!(meter instanceof Gauge gauge)) {
+                continue;
+            }
+            String name = meter.getId().getName();
+            if (name.startsWith("executor.") || name.startsWith("tomcat.threads.") || name.startsWith("jvm.threads.")
+                    || name.endsWith(".queue.size") || name.equals("bandongho.cart.dirty")
+                    || name.startsWith("bandongho.bulkhead.")) {
+                String executor = meter.getId().getTag("name");
+                String trafficClass = meter.getId().getTag("class");
+                if (trafficClass != null) {
+                    name = name + "[" + trafficClass + "/" + meter.getId().getTag("resource") + "]";
+                } else if (executor != null) {
+                    name = name + "[" + executor + "]";
+                }
+                values.put(name, gauge.value());
+            }
+        }
+        return values;
+    }
+}
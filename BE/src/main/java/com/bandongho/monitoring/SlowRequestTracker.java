@@ -0,0 +1,179 @@
+package com.bandongho.monitoring;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Keeps the slowest requests of the current and the previous window. The common case is one
+// nanoTime pair and a volatile read: only requests slower than the window's current floor take
+// the lock, and once the window is full that is a small fraction of traffic.
+@Component
+public class SlowRequestTracker extends OncePerRequestFilter {
+
+    @Value("${app.monitoring.slow-requests.size:20}")
+    private int size;
+
+    @Value("${app.monitoring.slow-requests.window-ms:300000}")
+    private long windowMs;
+
+    private final Object lock = new Object();
+    private PriorityQueue<SlowRequest> current = new PriorityQueue<>(Comparator.comparingLong(SlowRequest::getDurationMicros));
+    private List<SlowRequest> previous = List.of();
+    private volatile long windowStartedAt = System.currentTimeMillis();
+    private volatile long floorMicros = 0;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long startedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new RecordOnCompletion(request, response, startedAt));
+            } else {
+                finish(request, response.getStatus(), startedAt);
+            }
+        }
+    }
+
+    private void finish(HttpServletRequest request, int status, long startedAt) {
+        long durationMicros = (System.nanoTime() - startedAt) / 1000;
+        if (durationMicros > floorMicros || System.currentTimeMillis() - windowStartedAt > windowMs) {
+            record(request, status, durationMicros);
+        }
+    }
+
+    public List<SlowRequest> getSlowest() {
+        List<SlowRequest> slowest;
+        synchronized (lock) {
+            rotateIfDue(System.currentTimeMillis());
+            slowest = new ArrayList<>(current);
+            slowest.addAll(previous);
+        }
+        slowest.sort(Comparator.comparingLong(SlowRequest::getDurationMicros).reversed());
+        return slowest.size() > size ? slowest.subList(0, size) : slowest;
+    }
+
+    private void record(HttpServletRequest request, int status, long durationMicros) {
+        // The matched pattern (/orders/{id}) groups requests better than the raw URI
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        SlowRequest slowRequest = new SlowRequest(request.getMethod(),
+                pattern != null ? pattern.toString() : request.getRequestURI(),
+                request.getRequestURI(), status, durationMicros, LocalDateTime.now());
+        synchronized (lock) {
+            rotateIfDue(System.currentTimeMillis());
+            if (current.size() < size) {
+                current.add(slowRequest);
+            } else if (durationMicros > current.peek().getDurationMicros()) {
+                current.poll();
+                current.add(slowRequest);
+            }
+            floorMicros = current.size() < size ? 0 : current.peek().getDurationMicros();
+        }
+    }
+
+    private void rotateIfDue(long now) {
+        if (now - windowStartedAt <= windowMs) {
+            return;
+        }
+        previous = new ArrayList<>(current);
+        current = new PriorityQueue<>(Comparator.comparingLong(SlowRequest::getDurationMicros));
+        windowStartedAt = now;
+        floorMicros = 0;
+    }
+
+    // The async dispatch that writes the result is not filtered again, so the request is timed up to
+    // completion here; onComplete also follows a timeout or error, once the final status is set
+    private class RecordOnCompletion implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long startedAt;
+
+        RecordOnCompletion(HttpServletRequest request, HttpServletResponse response, long startedAt) {
+            this.request = request;
+            this.response = response;
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish(request, response.getStatus(), startedAt);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when async is restarted
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    public static class SlowRequest {
+        private final String method;
+        private final String pattern;
+        private final String uri;
+        private final int status;
+        private final long durationMicros;
+        private final LocalDateTime finishedAt;
+
+        public SlowRequest(String method, String pattern, String uri, int status, long durationMicros, LocalDateTime finishedAt) {
+            this.method = method;
+            this.pattern = pattern;
+            this.uri = uri;
+            this.status = status;
+            this.durationMicros = durationMicros;
+            this.finishedAt = finishedAt;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getDurationMicros() {
+            return durationMicros;
+        }
+
+        public double getDurationMs() {
+            return durationMicros / 1000.0;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
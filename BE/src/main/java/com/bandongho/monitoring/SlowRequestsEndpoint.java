@@ -0,0 +1,21 @@
+package com.bandongho.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestsEndpoint {
+
+    @Autowired
+    private SlowRequestTracker slowRequestTracker;
+
+    @ReadOperation
+    public List<SlowRequestTracker.SlowRequest> slowRequests() {
+        return slowRequestTracker.getSlowest();
+    }
+}
@@ -0,0 +1,48 @@
+package com.bandongho.monitoring;
+
+import jakarta.mail.MessagingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+// SMTP connectivity for the readiness group. Opening an SMTP session takes a round trip or more,
+// so the result is cached and probes between checks get the last answer. When mail is not
+// configured the indicator reports UP: sending is optional and skipped by EmailService.
+@Component("smtp")
+public class SmtpHealthIndicator implements HealthIndicator {
+
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+
+    @Value("${app.monitoring.smtp-check-interval-ms:60000}")
+    private long checkIntervalMs;
+
+    private volatile Health lastHealth;
+    private volatile long lastCheckedAt = 0;
+
+    @Override
+    public Health health() {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            return Health.up().withDetail("configured", false).build();
+        }
+        long now = System.currentTimeMillis();
+        if (lastHealth == null || now - lastCheckedAt > checkIntervalMs) {
+            lastHealth = check(sender);
+            lastCheckedAt = now;
+        }
+        return lastHealth;
+    }
+
+    private Health check(JavaMailSenderImpl sender) {
+        try {
+            sender.testConnection();
+            return Health.up().withDetail("host", sender.getHost()).build();
+        } catch (MessagingException e) {
+            return Health.down(e).withDetail("host", String.valueOf(sender.getHost())).build();
+        }
+    }
+}
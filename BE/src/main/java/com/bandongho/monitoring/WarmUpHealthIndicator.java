@@ -0,0 +1,21 @@
+package com.bandongho.monitoring;
+
+import com.bandongho.services.WarmUpService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Part of the readiness group: the node is OUT_OF_SERVICE until the warm-up has finished
+@Component("warmup")
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = warmUpService.isComplete() ? Health.up() : Health.outOfService();
+        return builder.withDetails(warmUpService.getReport()).build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.bandongho.repositories;
+
+import com.bandongho.entities.CacheInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    @Query("SELECT MAX(c.id) FROM CacheInvalidation c")
+    Long findMaxId();
+    
+    @Query("SELECT c FROM CacheInvalidation c WHERE c.id > :afterId ORDER BY c.id")
+    List<CacheInvalidation> findAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM cache_invalidations WHERE created_at < NOW(6) - INTERVAL :minutes MINUTE", nativeQuery = true)
+    int deleteOlderThanMinutes(@Param("minutes") long minutes);
+}
@@ -0,0 +1,9 @@
+package com.bandongho.repositories;
+
+import com.bandongho.entities.Cart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CartRepository extends JpaRepository<Cart, Long> {
+}
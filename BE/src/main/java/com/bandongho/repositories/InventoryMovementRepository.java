@@ -0,0 +1,37 @@
+package com.bandongho.repositories;
+
+import com.bandongho.entities.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+    @Query("SELECT m FROM InventoryMovement m WHERE m.productId = :productId ORDER BY m.id DESC")
+    List<InventoryMovement> findRecentByProductId(@Param("productId") Long productId, Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(m.delta), 0) FROM InventoryMovement m WHERE m.productId = :productId AND m.id > :afterId")
+    Long sumDeltaAfter(@Param("productId") Long productId, @Param("afterId") Long afterId);
+    
+    @Query("SELECT MAX(m.id) FROM InventoryMovement m WHERE m.createdAt < :cutoff")
+    Long findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    // Opening balance for products that existed before the ledger did
+    @Modifying
+    @Query(value = "INSERT INTO inventory_movements (product_id, delta, type, reference, created_at) " +
+            "SELECT p.id, p.stock, 'ADMIN_SET', 'opening balance', NOW() FROM products p " +
+            "WHERE NOT EXISTS (SELECT 1 FROM inventory_movements m WHERE m.product_id = p.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM inventory_snapshots s WHERE s.product_id = p.id)", nativeQuery = true)
+    int insertOpeningBalances();
+    
+    @Modifying
+    @Query(value = "DELETE m FROM inventory_movements m JOIN inventory_snapshots s ON s.product_id = m.product_id " +
+            "WHERE m.id <= s.last_movement_id AND m.created_at < :cutoff", nativeQuery = true)
+    int deleteCompactedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,33 @@
+package com.bandongho.repositories;
+
+import com.bandongho.entities.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+    // Folds every not-yet-compacted movement up to :upToId into the per-product snapshot.
+    // Only rows past each snapshot's own watermark are summed, so re-running is harmless.
+    @Modifying
+    @Query(value = "INSERT INTO inventory_snapshots (product_id, stock, last_movement_id, updated_at) " +
+            "SELECT m.product_id, SUM(m.delta), MAX(m.id), NOW() FROM inventory_movements m " +
+            "LEFT JOIN inventory_snapshots s ON s.product_id = m.product_id " +
+            "WHERE m.id > COALESCE(s.last_movement_id, 0) AND m.id <= :upToId " +
+            "GROUP BY m.product_id " +
+            "ON DUPLICATE KEY UPDATE stock = stock + VALUES(stock), " +
+            "last_movement_id = VALUES(last_movement_id), updated_at = VALUES(updated_at)", nativeQuery = true)
+    int compactUpTo(@Param("upToId") Long upToId);
+    
+    // productId, current stock (shard total for hot SKUs), stock derived from snapshot + later movements
+    @Query(value = "SELECT p.id, CASE WHEN p.stock_shards > 0 THEN (SELECT COALESCE(SUM(sh.stock), 0) " +
+            "FROM product_stock_shards sh WHERE sh.product_id = p.id) ELSE p.stock END, COALESCE(s.stock, 0) + COALESCE((SELECT SUM(m.delta) FROM inventory_movements m " +
+            "WHERE m.product_id = p.id AND m.id > COALESCE(s.last_movement_id, 0)), 0) " +
+            "FROM products p LEFT JOIN inventory_snapshots s ON s.product_id = p.id " +
+            "WHERE p.id BETWEEN :fromId AND :toId", nativeQuery = true)
+    List<Object[]> findStockComparison(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
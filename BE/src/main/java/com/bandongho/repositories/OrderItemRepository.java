@@ -14,5 +14,8 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     
     @Query("SELECT oi FROM OrderItem oi WHERE oi.product.id = :productId")
     List<OrderItem> findByProductId(@Param("productId") Long productId);
+    
+    @Query("SELECT oi.order.id, oi.product.id FROM OrderItem oi WHERE oi.order.id BETWEEN :fromOrderId AND :toOrderId ORDER BY oi.order.id")
+    List<Object[]> findOrderProductPairs(@Param("fromOrderId") Long fromOrderId, @Param("toOrderId") Long toOrderId);
 }
 
@@ -1,11 +1,14 @@
 package com.bandongho.repositories;
 
 import com.bandongho.entities.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,11 +16,32 @@ import java.util.Optional;
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
     
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryPage(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryPageBefore(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
     List<Order> findAllByOrderByCreatedAtDesc();
     
     @Query("SELECT o FROM Order o WHERE o.orderNumber LIKE %:keyword% OR o.user.email LIKE %:keyword% OR o.user.fullName LIKE %:keyword%")
     List<Order> searchOrders(@Param("keyword") String keyword);
     
+    @Query("SELECT o FROM Order o WHERE o.id < :beforeId AND (o.orderNumber LIKE %:keyword% OR o.phoneNumber LIKE %:keyword% OR o.user.email LIKE %:keyword% OR o.user.fullName LIKE %:keyword% OR o.user.phone LIKE %:keyword%) ORDER BY o.id DESC")
+    List<Order> searchOrdersBefore(@Param("keyword") String keyword, @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    @Query("SELECT o.id, o.orderNumber, o.phoneNumber, o.user.id FROM Order o WHERE o.id BETWEEN :fromId AND :toId ORDER BY o.id")
+    List<Object[]> findSearchFields(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
     Optional<Order> findByOrderNumber(String orderNumber);
+    
+    @Query("SELECT o.orderNumber, o.user.email, o.user.fullName FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findNotificationFields(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT MIN(o.id) FROM Order o")
+    Long findMinId();
+    
+    @Query("SELECT MAX(o.id) FROM Order o")
+    Long findMaxId();
 }
 
@@ -1,6 +1,7 @@
 package com.bandongho.repositories;
 
 import com.bandongho.entities.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +12,13 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategoryId(Long categoryId);
+
+    boolean existsBySku(String sku);
+
+    boolean existsBySkuAndIdNot(String sku, Long id);
+
+    @Query("SELECT p.id, p.imageUrl FROM Product p WHERE p.imageUrl LIKE :prefix AND p.imageSrcset IS NULL")
+    List<Object[]> findImagesWithoutVariants(@Param("prefix") String prefix, Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
     List<Product> searchByNameOrDescription(@Param("keyword") String keyword);
@@ -20,5 +28,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
     List<Product> findByCategory(@Param("categoryId") Long categoryId);
+    
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId ORDER BY p.id")
+    List<Long> findIdsByCategory(@Param("categoryId") Long categoryId);
+    
+    @Query("SELECT MIN(p.id) FROM Product p")
+    Long findMinId();
+    
+    @Query("SELECT MAX(p.id) FROM Product p")
+    Long findMaxId();
 }
 
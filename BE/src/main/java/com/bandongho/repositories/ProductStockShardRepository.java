@@ -0,0 +1,40 @@
+package com.bandongho.repositories;
+
+import com.bandongho.entities.ProductStockShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, Long> {
+    @Modifying
+    @Query(value = "UPDATE product_stock_shards SET stock = stock - :quantity " +
+            "WHERE product_id = :productId AND shard_no = :shardNo AND stock >= :quantity", nativeQuery = true)
+    int tryDecrement(@Param("productId") Long productId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query(value = "UPDATE product_stock_shards SET stock = stock + :quantity " +
+            "WHERE product_id = :productId AND shard_no = :shardNo", nativeQuery = true)
+    int increment(@Param("productId") Long productId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query(value = "UPDATE product_stock_shards SET stock = :stock " +
+            "WHERE product_id = :productId AND shard_no = :shardNo", nativeQuery = true)
+    int setShardStock(@Param("productId") Long productId, @Param("shardNo") int shardNo, @Param("stock") int stock);
+    
+    @Query(value = "SELECT COALESCE(SUM(stock), 0) FROM product_stock_shards WHERE product_id = :productId", nativeQuery = true)
+    Long sumStock(@Param("productId") Long productId);
+    
+    // shard_no, stock - locks every shard of the product in a fixed order
+    @Query(value = "SELECT shard_no, stock FROM product_stock_shards WHERE product_id = :productId " +
+            "ORDER BY shard_no FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockShards(@Param("productId") Long productId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM product_stock_shards WHERE product_id = :productId", nativeQuery = true)
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,32 @@
+package com.bandongho.repositories;
+
+import com.bandongho.entities.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    // Whoever locks the row first (checkout, release or expiry) settles the reservation; the others find nothing
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.id = :id")
+    Optional<StockReservation> findByIdForUpdate(@Param("id") Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.id IN :ids ORDER BY r.id")
+    List<StockReservation> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT r.id FROM StockReservation r WHERE r.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+    
+    // id, expires_at
+    @Query("SELECT r.id, r.expiresAt FROM StockReservation r")
+    List<Object[]> findAllDeadlines();
+}
@@ -2,13 +2,18 @@ package com.bandongho.repositories;
 
 import com.bandongho.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.id, u.email, u.fullName, u.phone FROM User u")
+    List<Object[]> findSearchFields();
 }
 
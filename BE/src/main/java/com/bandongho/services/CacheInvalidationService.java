@@ -0,0 +1,8 @@
+package com.bandongho.services;
+
+import com.bandongho.entities.CacheInvalidation;
+
+public interface CacheInvalidationService {
+    String getNodeId();
+    void publish(CacheInvalidation.EntityType entityType, Long entityId);
+}
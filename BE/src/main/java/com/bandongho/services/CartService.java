@@ -0,0 +1,19 @@
+package com.bandongho.services;
+
+import com.bandongho.dtos.CartDTO;
+import com.bandongho.dtos.CartItemDTO;
+import com.bandongho.dtos.CartQuoteDTO;
+import com.bandongho.dtos.OrderItemDTO;
+
+import java.util.List;
+
+public interface CartService {
+    CartDTO getCart(Long userId);
+    CartDTO addItem(Long userId, Long productId, int quantity);
+    CartDTO updateItem(Long userId, Long productId, int quantity);
+    CartDTO removeItem(Long userId, Long productId);
+    CartDTO clearCart(Long userId);
+    List<OrderItemDTO> getCheckoutItems(Long userId);
+    CartQuoteDTO quote(List<CartItemDTO> items);
+    int flush();
+}
@@ -0,0 +1,11 @@
+package com.bandongho.services;
+
+import com.bandongho.dtos.CheckoutRequest;
+import com.bandongho.dtos.OrderDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface CheckoutPipelineService {
+    boolean isEnabled();
+    CompletableFuture<OrderDTO> submit(CheckoutRequest request);
+}
@@ -1,7 +1,10 @@
 package com.bandongho.services;
 
+import com.bandongho.entities.Order;
+
 public interface EmailService {
     void sendRegistrationEmail(String to, String userName);
     void sendOrderConfirmationEmail(String to, String userName, String orderNumber, Double totalAmount);
+    void sendOrderStatusEmail(String to, String userName, String orderNumber, Order.OrderStatus status);
 }
 
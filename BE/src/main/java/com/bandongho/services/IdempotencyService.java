@@ -0,0 +1,10 @@
+package com.bandongho.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    <T> CompletableFuture<T> execute(String key, String operation, Object request, Class<T> resultType,
+                                     Supplier<CompletableFuture<T>> action);
+    int evictExpired();
+}
@@ -0,0 +1,12 @@
+package com.bandongho.services;
+
+import com.bandongho.dtos.ProductDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+public interface ImageService {
+    ProductDTO uploadProductImage(Long productId, MultipartFile file);
+    Path resolveFile(String fileName);
+    String getContentType(String fileName);
+}
@@ -0,0 +1,16 @@
+package com.bandongho.services;
+
+import com.bandongho.dtos.InventoryStatusDTO;
+import com.bandongho.dtos.ReconciliationReportDTO;
+import com.bandongho.entities.InventoryMovement;
+
+import java.util.Map;
+
+public interface InventoryLedgerService {
+    void recordMovement(Long productId, int delta, InventoryMovement.MovementType type, String reference);
+    void recordMovements(Map<Long, Integer> deltasByProductId, InventoryMovement.MovementType type, String reference);
+    InventoryStatusDTO getInventoryStatus(Long productId);
+    int compact();
+    ReconciliationReportDTO reconcile();
+    ReconciliationReportDTO getLastReconciliation();
+}
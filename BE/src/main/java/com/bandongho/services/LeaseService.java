@@ -0,0 +1,65 @@
+package com.bandongho.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public interface LeaseService {
+    Lease tryAcquire(String name, long ttlMs);
+    boolean renew(Lease lease);
+    void release(Lease lease, long keepMs);
+    void assertHeld(Lease lease);
+    boolean runExclusive(String name, long ttlMs, long keepMs, Consumer<Lease> job);
+
+    final class Lease {
+        private final String name;
+        private final String owner;
+        private final long fencingToken;
+        private final long ttlMs;
+        private volatile boolean lost = false;
+        // Open transactions that fenced this lease and hold its row until they end
+        private final AtomicInteger fencingTransactions = new AtomicInteger();
+
+        public Lease(String name, String owner, long fencingToken, long ttlMs) {
+            this.name = name;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+            this.ttlMs = ttlMs;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public boolean isLost() {
+            return lost;
+        }
+
+        public void markLost() {
+            lost = true;
+        }
+
+        public boolean isFenced() {
+            return fencingTransactions.get() > 0;
+        }
+
+        public void fenceOpened() {
+            fencingTransactions.incrementAndGet();
+        }
+
+        public void fenceClosed() {
+            fencingTransactions.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.bandongho.services;
+
+import com.bandongho.entities.Order;
+
+public interface OrderSearchService {
+    long[] findCandidates(String keyword, long beforeId, int max);
+    boolean matches(Order order, String keyword);
+    void loadIndex();
+    boolean isReady();
+}
@@ -1,6 +1,9 @@
 package com.bandongho.services;
 
+import com.bandongho.dtos.BulkOrderStatusRequest;
+import com.bandongho.dtos.BulkOrderStatusResultDTO;
 import com.bandongho.dtos.CheckoutRequest;
+import com.bandongho.dtos.CursorPageDTO;
 import com.bandongho.dtos.OrderDTO;
 import com.bandongho.dtos.OrderItemDTO;
 
@@ -9,12 +12,15 @@ import java.util.List;
 public interface OrderService {
     OrderDTO createOrder(CheckoutRequest request, List<OrderItemDTO> cartItems);
     OrderDTO updateOrder(Long id, OrderDTO orderDTO);
+    BulkOrderStatusResultDTO bulkUpdateStatus(BulkOrderStatusRequest request);
     OrderDTO updateOrderItemQuantity(Long orderId, Long orderItemId, Integer quantity);
     OrderDTO getOrderById(Long id);
     OrderDTO getOrderByOrderNumber(String orderNumber);
     List<OrderDTO> getAllOrders();
     List<OrderDTO> getOrdersByUserId(Long userId);
+    CursorPageDTO<OrderDTO> getOrderHistory(Long userId, String cursor, int size, boolean summary);
     List<OrderDTO> searchOrders(String keyword);
+    CursorPageDTO<OrderDTO> searchOrders(String keyword, String cursor, int size);
     void deleteOrder(Long id);
 }
 
@@ -0,0 +1,13 @@
+package com.bandongho.services;
+
+import com.bandongho.dtos.ProductImportReportDTO;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportReportDTO importProducts(InputStream input, Format format);
+
+    enum Format {
+        CSV, NDJSON
+    }
+}
@@ -1,5 +1,7 @@
 package com.bandongho.services;
 
+import com.bandongho.dtos.BulkProductUpdateRequest;
+import com.bandongho.dtos.BulkProductUpdateResultDTO;
 import com.bandongho.dtos.ProductDTO;
 
 import java.util.List;
@@ -7,6 +9,10 @@ import java.util.List;
 public interface ProductService {
     ProductDTO createProduct(ProductDTO productDTO);
     ProductDTO updateProduct(Long id, ProductDTO productDTO);
+    ProductDTO configureStockShards(Long id, int shards);
+    BulkProductUpdateResultDTO bulkUpdate(BulkProductUpdateRequest request);
+    ProductDTO replaceImage(Long id, String imageUrl);
+    void attachImageVariants(Long id, String imageUrl, String srcset);
     ProductDTO getProductById(Long id);
     List<ProductDTO> getAllProducts();
     List<ProductDTO> getProductsByCategory(Long categoryId);
@@ -0,0 +1,11 @@
+package com.bandongho.services;
+
+import com.bandongho.dtos.ProductDTO;
+
+import java.util.List;
+
+public interface RecommendationService {
+    List<ProductDTO> getRelatedProducts(Long productId, int limit);
+    void loadHistory();
+    boolean isReady();
+}
@@ -0,0 +1,12 @@
+package com.bandongho.services;
+
+import com.bandongho.dtos.StockReservationDTO;
+
+import java.util.Map;
+
+public interface StockReservationService {
+    StockReservationDTO reserve(StockReservationDTO reservationDTO);
+    StockReservationDTO getReservation(Long id);
+    void release(Long id);
+    Map<Long, Integer> consume(Long id, Long userId, Map<Long, Integer> wanted, String reference);
+}
@@ -0,0 +1,11 @@
+package com.bandongho.services;
+
+import com.bandongho.entities.Product;
+
+public interface StockService {
+    int getStock(Product product);
+    void decreaseStock(Product product, int quantity);
+    void increaseStock(Product product, int quantity);
+    void setStock(Product product, int stock);
+    void configureShards(Product product, int shards);
+}
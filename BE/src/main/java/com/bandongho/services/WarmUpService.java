@@ -0,0 +1,9 @@
+package com.bandongho.services;
+
+import java.util.Map;
+
+public interface WarmUpService {
+    void warmUp();
+    boolean isComplete();
+    Map<String, Object> getReport();
+}
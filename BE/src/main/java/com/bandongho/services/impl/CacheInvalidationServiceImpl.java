@@ -0,0 +1,104 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.cache.InvalidationMessage;
+import com.bandongho.cache.InvalidationTransport;
+import com.bandongho.configs.NodeIdentity;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.services.CacheInvalidationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Cross-node cache invalidation bus. Writers publish (type, id) through the configured transport;
+// messages from other nodes are re-published here as CacheInvalidatedEvent for local caches. Own
+// messages are skipped because local caches already follow the domain events. Staleness is bounded:
+// each remote change arrives within about one poll interval, and if the transport goes silent for
+// longer than max-staleness-ms every cache is told to drop everything. The admin order search index
+// is left out of that: its hits are re-checked against the database, and rebuilding it means
+// reading every user and order again, each staleness period, while the transport is down.
+@Service
+public class CacheInvalidationServiceImpl implements CacheInvalidationService {
+
+    private static final Set<CacheInvalidation.EntityType> FLUSHED_WHEN_STALE = EnumSet.of(
+            CacheInvalidation.EntityType.PRODUCT, CacheInvalidation.EntityType.CATEGORY, CacheInvalidation.EntityType.CART);
+
+    @Autowired
+    private InvalidationTransport transport;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Value("${app.cache.invalidation.max-staleness-ms:10000}")
+    private long maxStalenessMs;
+
+    private String nodeId;
+    private volatile long lastHeardAt = System.currentTimeMillis();
+    private volatile long lastFullFlushAt = 0;
+    private Timer propagationLag;
+
+    @PostConstruct
+    public void init() {
+        nodeId = nodeIdentity.getNodeId();
+        propagationLag = Timer.builder("bandongho.cache.invalidation.lag")
+                .description("Time from a write on another node until this node's caches were invalidated")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("bandongho.cache.invalidation.staleness.ms", this,
+                bus -> System.currentTimeMillis() - bus.lastHeardAt);
+        transport.subscribe(this::receive);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(CacheInvalidation.EntityType entityType, Long entityId) {
+        transport.publish(new InvalidationMessage(entityType, entityId, nodeId, LocalDateTime.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.max-staleness-ms:10000}")
+    public void checkStaleness() {
+        long now = System.currentTimeMillis();
+        if (now - lastHeardAt > maxStalenessMs && now - lastFullFlushAt > maxStalenessMs) {
+            System.err.println("No cache invalidations received for " + (now - lastHeardAt) + " ms, dropping cached entries");
+            lastFullFlushAt = now;
+            meterRegistry.counter("bandongho.cache.invalidation.full-flushes").increment();
+            for (CacheInvalidation.EntityType entityType : FLUSHED_WHEN_STALE) {
+                eventPublisher.publishEvent(new CacheInvalidatedEvent(entityType, null));
+            }
+        }
+    }
+
+    private void receive(List<InvalidationMessage> messages) {
+        lastHeardAt = System.currentTimeMillis();
+        for (InvalidationMessage message : messages) {
+            if (nodeId.equals(message.getOriginNode())) {
+                continue;
+            }
+            eventPublisher.publishEvent(new CacheInvalidatedEvent(message.getEntityType(), message.getEntityId()));
+            propagationLag.record(Duration.between(message.getCreatedAt(), LocalDateTime.now()));
+            meterRegistry.counter("bandongho.cache.invalidation.received",
+                    "type", message.getEntityType().name()).increment();
+        }
+    }
+}
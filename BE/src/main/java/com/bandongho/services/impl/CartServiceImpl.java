@@ -0,0 +1,546 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.dtos.CartDTO;
+import com.bandongho.dtos.CartItemDTO;
+import com.bandongho.dtos.CartQuoteDTO;
+import com.bandongho.dtos.OrderItemDTO;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.entities.Product;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.events.OrderPlacedEvent;
+import com.bandongho.events.ProductChangedEvent;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.ResourceNotFoundException;
+import com.bandongho.repositories.CartRepository;
+import com.bandongho.repositories.ProductRepository;
+import com.bandongho.services.CacheInvalidationService;
+import com.bandongho.services.CartService;
+import com.bandongho.services.StockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Carts are cached in memory and written behind. Changes only mark the cart dirty; a scheduled flush
+// writes all dirty carts to the carts table in JDBC batches, then drops carts that have been idle for
+// a while. A cart that is not in memory is loaded from the table on first use. The table row is the
+// shared copy: every flush is conditional on the version the node loaded, a node that loses that race
+// drops its copy and reloads, and each successful flush is published on the invalidation bus so other
+// nodes drop theirs. Another node can therefore serve a cart at most one flush interval plus the bus
+// lag behind, and checkout re-checks the version before reading the cart.
+// Quotes and cart views read prices and stock through a short-lived cache and never write.
+@Service
+public class CartServiceImpl implements CartService {
+
+    // Empty carts keep their row (with no items) so the version keeps counting up
+    private static final String INSERT_SQL = "INSERT IGNORE INTO carts (user_id, items, version, updated_at) VALUES (?, ?, 1, ?)";
+    private static final String UPDATE_SQL = "UPDATE carts SET items = ?, version = version + 1, updated_at = ? " +
+            "WHERE user_id = ? AND version = ?";
+    private static final String VERSIONS_SQL = "SELECT user_id, items, version FROM carts WHERE user_id IN (%s)";
+    private static final String VERSION_SQL = "SELECT version FROM carts WHERE user_id = ?";
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cart.max-lines:50}")
+    private int maxLines;
+
+    @Value("${app.cart.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    @Value("${app.cart.quote-cache-ttl-ms:2000}")
+    private long quoteCacheTtlMs;
+
+    @Value("${app.cart.quote-cache-max-entries:10000}")
+    private int quoteCacheMaxEntries;
+
+    private final Map<Long, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Price and stock per product for cart views and quotes; short-lived because stock moves with every order
+    private final Map<Long, PricedProduct> priceCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gaugeMapSize("bandongho.cart.loaded", Tags.empty(), carts);
+        meterRegistry.gaugeCollectionSize("bandongho.cart.dirty", Tags.empty(), dirty);
+    }
+
+    @Override
+    public CartDTO getCart(Long userId) {
+        return convertToDTO(userId, snapshot(userId));
+    }
+
+    @Override
+    public CartDTO addItem(Long userId, Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new BusinessException("Quantity must be greater than 0");
+        }
+        Product product = findProduct(productId);
+        update(userId, lines -> {
+            int newQuantity = lines.getOrDefault(productId, 0) + quantity;
+            checkLine(lines, product, newQuantity);
+            lines.put(productId, newQuantity);
+        });
+        return getCart(userId);
+    }
+
+    @Override
+    public CartDTO updateItem(Long userId, Long productId, int quantity) {
+        if (quantity <= 0) {
+            return removeItem(userId, productId);
+        }
+        Product product = findProduct(productId);
+        update(userId, lines -> {
+            checkLine(lines, product, quantity);
+            lines.put(productId, quantity);
+        });
+        return getCart(userId);
+    }
+
+    @Override
+    public CartDTO removeItem(Long userId, Long productId) {
+        update(userId, lines -> lines.remove(productId));
+        return getCart(userId);
+    }
+
+    @Override
+    public CartDTO clearCart(Long userId) {
+        update(userId, Map::clear);
+        return getCart(userId);
+    }
+
+    @Override
+    public CartQuoteDTO quote(List<CartItemDTO> items) {
+        if (items == null) {
+            throw new BusinessException("Cart items are required");
+        }
+        if (items.size() > maxLines) {
+            throw new BusinessException("Cart cannot hold more than " + maxLines + " products");
+        }
+        for (CartItemDTO item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new BusinessException("Each cart item needs a product ID and a quantity of at least 1");
+            }
+        }
+
+        Map<Long, PricedProduct> products = lookupProducts(items.stream()
+                .map(CartItemDTO::getProductId)
+                .collect(Collectors.toSet()));
+
+        CartQuoteDTO quote = new CartQuoteDTO();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        boolean allAvailable = true;
+        for (CartItemDTO item : items) {
+            PricedProduct product = products.get(item.getProductId());
+            CartItemDTO line;
+            if (product == null) {
+                // No longer sold: report it unavailable instead of failing the whole quote
+                line = new CartItemDTO(item.getProductId(), item.getProductName(), item.getProductImageUrl(),
+                        null, item.getQuantity(), BigDecimal.ZERO, 0, false);
+            } else {
+                line = convertToItemDTO(product, item.getQuantity());
+                totalAmount = totalAmount.add(line.getSubtotal());
+            }
+            allAvailable &= line.getAvailable();
+            quote.getItems().add(line);
+        }
+        quote.setTotalAmount(totalAmount);
+        quote.setAllAvailable(allAvailable);
+        return quote;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        priceCache.remove(event.getProductId());
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.getEntityType() == CacheInvalidation.EntityType.CART) {
+            // A cart with unflushed changes is kept; its flush will find out whether it is stale
+            if (event.getEntityId() == null) {
+                carts.keySet().forEach(this::evictIfClean);
+            } else {
+                evictIfClean(event.getEntityId());
+            }
+            return;
+        }
+        if (event.getEntityType() != CacheInvalidation.EntityType.PRODUCT) {
+            return;
+        }
+        if (event.getEntityId() == null) {
+            priceCache.clear();
+        } else {
+            priceCache.remove(event.getEntityId());
+        }
+    }
+
+    @Override
+    public List<OrderItemDTO> getCheckoutItems(Long userId) {
+        // Orders are placed from what is stored, not from a copy another node may since have replaced
+        refreshIfStale(userId);
+        return snapshot(userId).entrySet().stream()
+                .map(line -> {
+                    OrderItemDTO item = new OrderItemDTO();
+                    item.setProductId(line.getKey());
+                    item.setQuantity(line.getValue());
+                    return item;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Bought items leave the cart once the order is committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (OrderItemDTO item : event.getOrder().getOrderItems()) {
+            priceCache.remove(item.getProductId());
+        }
+        update(event.getOrder().getUserId(), lines -> {
+            for (OrderItemDTO item : event.getOrder().getOrderItems()) {
+                Integer inCart = lines.get(item.getProductId());
+                if (inCart == null) {
+                    continue;
+                }
+                if (inCart > item.getQuantity()) {
+                    lines.put(item.getProductId(), inCart - item.getQuantity());
+                } else {
+                    lines.remove(item.getProductId());
+                }
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:2000}")
+    public synchronized int flush() {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        // userId -> items written and the version they were based on, for checking which writes won
+        Map<Long, String> written = new LinkedHashMap<>();
+        Map<Long, Long> baseVersions = new HashMap<>();
+        Map<Long, CartState> flushed = new LinkedHashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        for (Long userId : dirty) {
+            // Removed before reading, so a change made after this point marks the cart dirty again
+            dirty.remove(userId);
+            CartState cart = carts.get(userId);
+            if (cart == null) {
+                continue;
+            }
+            String items;
+            long version;
+            synchronized (cart) {
+                items = encode(cart.lines);
+                version = cart.version;
+            }
+            if (version == 0) {
+                if (items.isEmpty()) {
+                    continue;
+                }
+                inserts.add(new Object[]{userId, items, now});
+            } else {
+                updates.add(new Object[]{items, now, userId, version});
+            }
+            written.put(userId, items);
+            baseVersions.put(userId, version);
+            flushed.put(userId, cart);
+        }
+        if (flushed.isEmpty()) {
+            evictIdle();
+            return 0;
+        }
+
+        Map<Long, Object[]> stored = new HashMap<>();
+        try {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            }
+            // Batch update counts are not reliable across drivers, so read back which writes landed
+            String in = String.join(",", Collections.nCopies(flushed.size(), "?"));
+            jdbcTemplate.query(String.format(VERSIONS_SQL, in), rs -> {
+                stored.put(rs.getLong(1), new Object[]{rs.getString(2), rs.getLong(3)});
+            }, flushed.keySet().toArray());
+        } catch (RuntimeException e) {
+            System.err.println("Error flushing " + flushed.size() + " carts, will retry: " + e.getMessage());
+            dirty.addAll(flushed.keySet());
+            return 0;
+        }
+
+        int stale = 0;
+        for (Map.Entry<Long, CartState> entry : flushed.entrySet()) {
+            Long userId = entry.getKey();
+            CartState cart = entry.getValue();
+            Object[] row = stored.get(userId);
+            long expected = baseVersions.get(userId) + 1;
+            // Two nodes writing the same items leave the same cart, so either may count as the winner
+            if (row != null && (Long) row[1] == expected && written.get(userId).equals(row[0])) {
+                synchronized (cart) {
+                    cart.version = expected;
+                }
+                cacheInvalidationService.publish(CacheInvalidation.EntityType.CART, userId);
+            } else {
+                // Another node stored a newer cart first; the next read loads it
+                stale++;
+                evict(userId, cart);
+            }
+        }
+        if (stale > 0) {
+            meterRegistry.counter("bandongho.cart.stale-flushes").increment(stale);
+            System.err.println("Discarded " + stale + " cart changes that were older than the stored carts");
+        }
+
+        evictIdle();
+        return flushed.size() - stale;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void evictIdle() {
+        long idleBefore = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleEvictionMinutes);
+        for (Map.Entry<Long, CartState> entry : carts.entrySet()) {
+            CartState cart = entry.getValue();
+            synchronized (cart) {
+                if (cart.lastAccess < idleBefore && !dirty.contains(entry.getKey())) {
+                    cart.evicted = true;
+                    carts.remove(entry.getKey(), cart);
+                }
+            }
+        }
+    }
+
+    private void evictIfClean(Long userId) {
+        CartState cart = carts.get(userId);
+        if (cart == null) {
+            return;
+        }
+        // Checked under the cart's lock, which every change holds while it marks the cart dirty
+        synchronized (cart) {
+            if (!dirty.contains(userId)) {
+                cart.evicted = true;
+                carts.remove(userId, cart);
+            }
+        }
+    }
+
+    private void evict(Long userId, CartState cart) {
+        synchronized (cart) {
+            cart.evicted = true;
+            carts.remove(userId, cart);
+        }
+        dirty.remove(userId);
+    }
+
+    private void refreshIfStale(Long userId) {
+        CartState cart = carts.get(userId);
+        if (cart == null || dirty.contains(userId)) {
+            return;
+        }
+        Long stored = jdbcTemplate.query(VERSION_SQL, rs -> rs.next() ? rs.getLong(1) : 0L, userId);
+        boolean stale;
+        synchronized (cart) {
+            stale = stored != null && stored != cart.version;
+        }
+        if (stale) {
+            evictIfClean(userId);
+        }
+    }
+
+    private Map<Long, Integer> snapshot(Long userId) {
+        return withCart(userId, cart -> new LinkedHashMap<>(cart.lines));
+    }
+
+    private void update(Long userId, Consumer<Map<Long, Integer>> change) {
+        withCart(userId, cart -> {
+            change.accept(cart.lines);
+            dirty.add(userId);
+            return null;
+        });
+    }
+
+    private <T> T withCart(Long userId, Function<CartState, T> action) {
+        while (true) {
+            CartState cart = carts.computeIfAbsent(userId, this::load);
+            synchronized (cart) {
+                // Lost a race with eviction; load a fresh copy
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.nanoTime();
+                return action.apply(cart);
+            }
+        }
+    }
+
+    private CartState load(Long userId) {
+        CartState cart = new CartState();
+        cartRepository.findById(userId).ifPresent(saved -> {
+            cart.lines.putAll(decode(saved.getItems()));
+            cart.version = saved.getVersion();
+        });
+        return cart;
+    }
+
+    private Product findProduct(Long productId) {
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+    }
+
+    private void checkLine(Map<Long, Integer> lines, Product product, int quantity) {
+        if (!lines.containsKey(product.getId()) && lines.size() >= maxLines) {
+            throw new BusinessException("Cart cannot hold more than " + maxLines + " products");
+        }
+        if (quantity > stockService.getStock(product)) {
+            throw new BusinessException("Insufficient stock for product: " + product.getName());
+        }
+    }
+
+    private CartDTO convertToDTO(Long userId, Map<Long, Integer> lines) {
+        Map<Long, PricedProduct> products = lookupProducts(lines.keySet());
+
+        CartDTO dto = new CartDTO();
+        dto.setUserId(userId);
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            PricedProduct product = products.get(line.getKey());
+            // Products deleted since they were added are left out of the view
+            if (product == null) {
+                continue;
+            }
+            CartItemDTO item = convertToItemDTO(product, line.getValue());
+            dto.getItems().add(item);
+            totalAmount = totalAmount.add(item.getSubtotal());
+        }
+        dto.setTotalAmount(totalAmount);
+        return dto;
+    }
+
+    private CartItemDTO convertToItemDTO(PricedProduct product, int quantity) {
+        BigDecimal subtotal = product.price.multiply(BigDecimal.valueOf(quantity));
+        return new CartItemDTO(product.id, product.name, product.imageUrl, product.price, quantity, subtotal,
+                product.stock, quantity <= product.stock);
+    }
+
+    // Cache-first: fresh entries are served from memory and all misses are loaded with one query
+    private Map<Long, PricedProduct> lookupProducts(Collection<Long> productIds) {
+        Map<Long, PricedProduct> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Long productId : productIds) {
+            PricedProduct cached = priceCache.get(productId);
+            if (cached != null && now - cached.loadedAt < TimeUnit.MILLISECONDS.toNanos(quoteCacheTtlMs)) {
+                found.put(productId, cached);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        if (priceCache.size() + missing.size() > quoteCacheMaxEntries) {
+            priceCache.values().removeIf(entry -> now - entry.loadedAt >= TimeUnit.MILLISECONDS.toNanos(quoteCacheTtlMs));
+            if (priceCache.size() + missing.size() > quoteCacheMaxEntries) {
+                priceCache.clear();
+            }
+        }
+        for (Product product : productRepository.findAllById(missing)) {
+            PricedProduct loaded = new PricedProduct(product.getId(), product.getName(), product.getImageUrl(),
+                    product.getPrice(), stockService.getStock(product), now);
+            priceCache.put(product.getId(), loaded);
+            found.put(product.getId(), loaded);
+        }
+        return found;
+    }
+
+    private static String encode(Map<Long, Integer> lines) {
+        return lines.entrySet().stream()
+                .map(line -> line.getKey() + ":" + line.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static Map<Long, Integer> decode(String items) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        if (items == null || items.isBlank()) {
+            return lines;
+        }
+        for (String line : items.split(",")) {
+            String[] parts = line.split(":");
+            lines.put(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return lines;
+    }
+
+    private static final class PricedProduct {
+        private final Long id;
+        private final String name;
+        private final String imageUrl;
+        private final BigDecimal price;
+        private final int stock;
+        private final long loadedAt;
+
+        private PricedProduct(Long id, String name, String imageUrl, BigDecimal price, int stock, long loadedAt) {
+            this.id = id;
+            this.name = name;
+            this.imageUrl = imageUrl;
+            this.price = price;
+            this.stock = stock;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final class CartState {
+        // productId -> quantity, in the order items were added
+        private final Map<Long, Integer> lines = new LinkedHashMap<>();
+        // Version of the stored row this copy is based on; 0 = no row yet
+        private long version = 0;
+        private long lastAccess = System.nanoTime();
+        private boolean evicted = false;
+    }
+}
@@ -1,14 +1,31 @@
 package com.bandongho.services.impl;
 
 import com.bandongho.dtos.CategoryDTO;
+import com.bandongho.entities.CacheInvalidation;
 import com.bandongho.entities.Category;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.events.CategoryChangedEvent;
 import com.bandongho.exceptions.ResourceNotFoundException;
 import com.bandongho.exceptions.BusinessException;
 import com.bandongho.repositories.CategoryRepository;
+import com.bandongho.services.CacheInvalidationService;
 import com.bandongho.services.CategoryService;
+import com.bandongho.utils.SingleFlightCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,9 +34,48 @@ import java.util.stream.Collectors;
 @Transactional
 public class CategoryServiceImpl implements CategoryService {
 
+    // Key of the full list in categoryListCache
+    private static final long ALL_CATEGORIES = 0L;
+
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.catalog.cache.ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    @Value("${app.catalog.cache.refresh-after-ms:20000}")
+    private long cacheRefreshAfterMs;
+
+    private SingleFlightCache<Long, CategoryDTO> categoryCache;
+    private SingleFlightCache<Long, List<CategoryDTO>> categoryListCache;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void initCaches() {
+        categoryCache = new SingleFlightCache<>("categories", cacheTtlMs, cacheRefreshAfterMs, 1000, meterRegistry);
+        categoryListCache = new SingleFlightCache<>("category-lists", cacheTtlMs, cacheRefreshAfterMs, 1, meterRegistry);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void stopCaches() {
+        categoryCache.stop();
+        categoryListCache.stop();
+    }
+
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         Category category = new Category();
@@ -27,6 +83,8 @@ public class CategoryServiceImpl implements CategoryService {
         category.setDescription(categoryDTO.getDescription());
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.CATEGORY, savedCategory.getId());
         return convertToDTO(savedCategory);
     }
 
@@ -43,21 +101,28 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.CATEGORY, id);
         return convertToDTO(updatedCategory);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CategoryDTO getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
-        return convertToDTO(category);
+        return categoryCache.get(id, key -> readOnlyTransaction.execute(status -> {
+            Category category = categoryRepository.findById(key)
+                    .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + key));
+            return convertToDTO(category);
+        }));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CategoryDTO> getAllCategories() {
-        return categoryRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return categoryListCache.get(ALL_CATEGORIES, key -> readOnlyTransaction.execute(status ->
+                categoryRepository.findAll().stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toUnmodifiableList())));
     }
 
     @Override
@@ -77,6 +142,8 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.CATEGORY, id);
     }
 
     @Override
@@ -86,6 +153,29 @@ public class CategoryServiceImpl implements CategoryService {
         return category.getProducts() != null && !category.getProducts().isEmpty();
     }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoryCache.invalidate(event.getCategoryId());
+        categoryListCache.invalidateAll();
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.getEntityType() != CacheInvalidation.EntityType.CATEGORY) {
+            return;
+        }
+        if (event.getEntityId() == null) {
+            categoryCache.invalidateAll();
+        } else {
+            categoryCache.invalidate(event.getEntityId());
+        }
+        categoryListCache.invalidateAll();
+    }
+
     private CategoryDTO convertToDTO(Category category) {
         CategoryDTO dto = new CategoryDTO();
         dto.setId(category.getId());
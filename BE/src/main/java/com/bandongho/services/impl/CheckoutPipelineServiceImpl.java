@@ -0,0 +1,286 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.dtos.CheckoutRequest;
+import com.bandongho.dtos.OrderDTO;
+import com.bandongho.dtos.OrderItemDTO;
+import com.bandongho.entities.Product;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.ResourceNotFoundException;
+import com.bandongho.exceptions.ServiceUnavailableException;
+import com.bandongho.repositories.ProductRepository;
+import com.bandongho.services.CartService;
+import com.bandongho.services.CheckoutPipelineService;
+import com.bandongho.services.OrderService;
+import com.bandongho.services.StockService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Group commit for checkout. Requests wait on a bounded queue and a single writer thread commits
+// up to max-batch-size of them per transaction, so a burst of orders shares one commit (and one
+// fsync) instead of paying for one each. Orders that would fail on stock or missing products are
+// rejected before the batch starts; if the batch transaction still fails, its orders are retried
+// one transaction each so a bad order only fails its own caller.
+@Service
+public class CheckoutPipelineServiceImpl implements CheckoutPipelineService {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.checkout.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.checkout.group-commit.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.checkout.group-commit.max-batch-size:40}")
+    private int maxBatchSize;
+
+    // How long the writer waits for more requests once the first one of a batch has arrived
+    @Value("${app.checkout.group-commit.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    private BlockingQueue<PendingCheckout> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private DistributionSummary batchSizes;
+    private Timer batchCommitTimer;
+    private Timer checkoutLatency;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("bandongho.checkout.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchCommitTimer = Timer.builder("bandongho.checkout.batch.commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        checkoutLatency = Timer.builder("bandongho.checkout.latency")
+                .description("Time from enqueue to result, including queueing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("bandongho.checkout.queue.size", Tags.empty(), queue);
+
+        running = true;
+        writer = new Thread(this::runWriter, "checkout-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingCheckout pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new ServiceUnavailableException("Checkout is shutting down, please retry"));
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public CompletableFuture<OrderDTO> submit(CheckoutRequest request) {
+        if (request.getCartItems() == null || request.getCartItems().isEmpty()) {
+            request.setCartItems(cartService.getCheckoutItems(request.getUserId()));
+        }
+        if (request.getCartItems().isEmpty()) {
+            throw new BusinessException("Cart is empty");
+        }
+        PendingCheckout pending = new PendingCheckout(request, System.nanoTime());
+        if (!running || !queue.offer(pending)) {
+            meterRegistry.counter("bandongho.checkout.rejected").increment();
+            throw new ServiceUnavailableException("Checkout is busy, please retry in a moment");
+        }
+        return pending.result;
+    }
+
+    private void runWriter() {
+        List<PendingCheckout> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingCheckout first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    PendingCheckout next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running && batch.isEmpty()) {
+                    return;
+                }
+            }
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                // Never leave a caller hanging because of an unexpected writer error
+                for (PendingCheckout pending : batch) {
+                    pending.result.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void process(List<PendingCheckout> batch) {
+        List<PendingCheckout> accepted = rejectUnfulfillable(batch);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        batchSizes.record(accepted.size());
+
+        List<OrderDTO> orders;
+        long startedAt = System.nanoTime();
+        try {
+            orders = new TransactionTemplate(transactionManager).execute(status -> {
+                List<OrderDTO> created = new ArrayList<>(accepted.size());
+                for (PendingCheckout pending : accepted) {
+                    created.add(orderService.createOrder(pending.request, pending.request.getCartItems()));
+                }
+                return created;
+            });
+            batchCommitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            // One order broke the shared transaction; commit them separately so only that one fails
+            meterRegistry.counter("bandongho.checkout.batch.fallbacks").increment();
+            for (PendingCheckout pending : accepted) {
+                try {
+                    complete(pending, orderService.createOrder(pending.request, pending.request.getCartItems()));
+                } catch (RuntimeException orderError) {
+                    fail(pending, orderError);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            complete(accepted.get(i), orders.get(i));
+        }
+    }
+
+    // Checks the batch against current stock in arrival order, so earlier orders win a contested
+    // item and later ones fail up front instead of rolling back everyone else's order
+    private List<PendingCheckout> rejectUnfulfillable(List<PendingCheckout> batch) {
+        Set<Long> productIds = new HashSet<>();
+        for (PendingCheckout pending : batch) {
+            for (OrderItemDTO item : pending.request.getCartItems()) {
+                productIds.add(item.getProductId());
+            }
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Integer> available = new HashMap<>();
+
+        List<PendingCheckout> accepted = new ArrayList<>(batch.size());
+        for (PendingCheckout pending : batch) {
+            // Reserved stock was taken when the hold was created; createOrder checks the rest
+            if (pending.request.getReservationId() != null) {
+                accepted.add(pending);
+                continue;
+            }
+            Map<Long, Integer> wanted = new HashMap<>();
+            for (OrderItemDTO item : pending.request.getCartItems()) {
+                wanted.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+            RuntimeException rejection = null;
+            for (Map.Entry<Long, Integer> entry : wanted.entrySet()) {
+                Product product = products.get(entry.getKey());
+                if (product == null) {
+                    rejection = new ResourceNotFoundException("Product not found with id: " + entry.getKey());
+                    break;
+                }
+                int stock = available.computeIfAbsent(product.getId(), id -> stockService.getStock(product));
+                if (stock < entry.getValue()) {
+                    rejection = new BusinessException("Insufficient stock for product: " + product.getName());
+                    break;
+                }
+            }
+            if (rejection != null) {
+                fail(pending, rejection);
+                continue;
+            }
+            for (Map.Entry<Long, Integer> entry : wanted.entrySet()) {
+                available.merge(entry.getKey(), -entry.getValue(), Integer::sum);
+            }
+            accepted.add(pending);
+        }
+        return accepted;
+    }
+
+    private void complete(PendingCheckout pending, OrderDTO order) {
+        checkoutLatency.record(System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+        pending.result.complete(order);
+    }
+
+    private void fail(PendingCheckout pending, RuntimeException error) {
+        checkoutLatency.record(System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+        pending.result.completeExceptionally(error);
+    }
+
+    private static final class PendingCheckout {
+        private final CheckoutRequest request;
+        private final long enqueuedAt;
+        private final CompletableFuture<OrderDTO> result = new CompletableFuture<>();
+
+        private PendingCheckout(CheckoutRequest request, long enqueuedAt) {
+            this.request = request;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -1,11 +1,27 @@
 package com.bandongho.services.impl;
 
+import com.bandongho.dtos.OrderDTO;
+import com.bandongho.entities.Order;
+import com.bandongho.events.OrderPlacedEvent;
+import com.bandongho.events.OrderStatusChangedEvent;
+import com.bandongho.repositories.OrderRepository;
 import com.bandongho.services.EmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class EmailServiceImpl implements EmailService {
@@ -13,6 +29,42 @@ public class EmailServiceImpl implements EmailService {
     @Autowired(required = false)
     private JavaMailSender mailSender;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.email.status-batch-size:500}")
+    private int statusBatchSize;
+
+    private ThreadPoolExecutor statusMailer;
+
+    // Separate from statusMailer so a bulk status run does not hold back order confirmations
+    private ThreadPoolExecutor orderMailer;
+
+    @PostConstruct
+    public void init() {
+        statusMailer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "order-status-mailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("bandongho.email.status.queue.size", statusMailer.getQueue(), Collection::size);
+        orderMailer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "order-confirmation-mailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("bandongho.email.order.queue.size", orderMailer.getQueue(), Collection::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        statusMailer.shutdown();
+        orderMailer.shutdown();
+    }
+
     @Override
     public void sendRegistrationEmail(String to, String userName) {
         try {
@@ -63,6 +115,61 @@ public class EmailServiceImpl implements EmailService {
         }
     }
 
+    @Override
+    public void sendOrderStatusEmail(String to, String userName, String orderNumber, Order.OrderStatus status) {
+        try {
+            if (mailSender == null) {
+                System.out.println("Email service not configured. Skipping email send.");
+                return;
+            }
+
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setTo(to);
+            helper.setSubject("Cập nhật đơn hàng #" + orderNumber);
+            helper.setText(buildOrderStatusEmailContent(userName, orderNumber, status), true);
+
+            mailSender.send(message);
+        } catch (Exception e) {
+            // Log error but don't throw exception - the status change is already committed
+            System.err.println("Error sending order status email for " + orderNumber + ": " + e.getMessage());
+        }
+    }
+
+    // Queued after commit: a bulk transition can touch thousands of orders, so nothing is sent on the request thread
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (mailSender == null) {
+            return;
+        }
+        List<Long> orderIds = List.copyOf(event.getOrderIds());
+        statusMailer.execute(() -> {
+            for (int from = 0; from < orderIds.size(); from += statusBatchSize) {
+                List<Long> batch = orderIds.subList(from, Math.min(from + statusBatchSize, orderIds.size()));
+                for (Object[] row : orderRepository.findNotificationFields(batch)) {
+                    sendOrderStatusEmail((String) row[1], (String) row[2], (String) row[0], event.getStatus());
+                }
+            }
+        });
+    }
+
+    // Sent only after the order commits, so a retried or rolled-back checkout never emails twice.
+    // Queued rather than sent inline: with group commit the commit runs on the checkout writer thread
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (mailSender == null) {
+            return;
+        }
+        OrderDTO order = event.getOrder();
+        orderMailer.execute(() -> sendOrderConfirmationEmail(
+                order.getUserEmail(),
+                order.getUserName(),
+                order.getOrderNumber(),
+                order.getTotalAmount().doubleValue()
+        ));
+    }
+
     private String buildRegistrationEmailContent(String userName) {
         return "<html><body>" +
                 "<h2>Chào mừng bạn đến với BanDongHo!</h2>" +
@@ -84,5 +191,19 @@ public class EmailServiceImpl implements EmailService {
                 "<p>Trân trọng,<br>Đội ngũ BanDongHo</p>" +
                 "</body></html>";
     }
-}
 
+    private String buildOrderStatusEmailContent(String userName, String orderNumber, Order.OrderStatus status) {
+        String statusText = switch (status) {
+            case PENDING -> "đang chờ xử lý";
+            case PROCESSING -> "đang được xử lý";
+            case DELIVERED -> "đã được giao thành công";
+            case CANCELLED -> "đã bị hủy";
+        };
+        return "<html><body>" +
+                "<h2>Cập nhật trạng thái đơn hàng</h2>" +
+                "<p>Xin chào <strong>" + userName + "</strong>,</p>" +
+                "<p>Đơn hàng <strong>" + orderNumber + "</strong> của bạn " + statusText + ".</p>" +
+                "<p>Trân trọng,<br>Đội ngũ BanDongHo</p>" +
+                "</body></html>";
+    }
+}
@@ -0,0 +1,248 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.aspects.ClusterJob;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.RequestInProgressException;
+import com.bandongho.services.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Idempotency-Key store. The first request with a key runs and its future is kept; duplicates
+// (retries, double submits) get the same future, so a duplicate that arrives while the first is
+// still running waits for that result instead of executing again. Failed executions are forgotten
+// so the client can retry with the same key. Entries are kept in insertion order, which is also
+// expiry order, so both the size bound and the TTL evict from the head.
+// The map only covers this node. Before running, a request also claims its key in the shared
+// idempotency_keys table, and the response is stored there once it succeeds, so a retry that lands
+// on another node replays it, or gets 409 while the first node is still running it. A claim whose
+// node died before storing the response keeps answering 409 until it expires: that may be a
+// committed order, so it is never run a second time. Requests are told apart by a SHA-256 of
+// their JSON body.
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final String CLAIM_SQL = "INSERT IGNORE INTO idempotency_keys (scoped_key, fingerprint) VALUES (?, ?)";
+    private static final String FIND_SQL = "SELECT fingerprint, response FROM idempotency_keys WHERE scoped_key = ?";
+    private static final String STORE_SQL = "UPDATE idempotency_keys SET response = ? WHERE scoped_key = ?";
+    private static final String RELEASE_SQL = "DELETE FROM idempotency_keys WHERE scoped_key = ? AND response IS NULL";
+    private static final String PRUNE_SQL = "DELETE FROM idempotency_keys WHERE created_at < NOW(6) - INTERVAL ? MINUTE";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    // Stores responses off the completing thread, which for group-committed checkouts is the writer
+    private ThreadPoolExecutor responseWriter;
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gauge("bandongho.idempotency.entries", entries, map -> {
+            synchronized (map) {
+                return map.size();
+            }
+        });
+        responseWriter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-response-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        responseWriter.shutdown();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, String operation, Object request, Class<T> resultType,
+                                            Supplier<CompletableFuture<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String scopedKey = operation + ":" + key;
+        String fingerprint = fingerprint(request);
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        synchronized (entries) {
+            Entry existing = entries.get(scopedKey);
+            if (existing != null && !existing.isExpired()) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    throw new BusinessException("Idempotency-Key was already used for a different request");
+                }
+                meterRegistry.counter("bandongho.idempotency.replayed", "operation", operation).increment();
+                return (CompletableFuture<T>) existing.result;
+            }
+            entries.remove(scopedKey);
+            entries.put(scopedKey, new Entry(result, fingerprint, System.nanoTime()));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+
+        boolean claimed = false;
+        CompletableFuture<T> execution;
+        try {
+            claimed = jdbcTemplate.update(CLAIM_SQL, scopedKey, fingerprint) == 1;
+            execution = claimed
+                    ? action.get()
+                    : CompletableFuture.completedFuture(replay(scopedKey, fingerprint, operation, resultType));
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+        boolean store = claimed;
+        execution.whenComplete((value, error) -> {
+            if (error != null) {
+                forget(scopedKey, result);
+                if (store) {
+                    // Released before the caller sees the error, so a retry with the same key can run
+                    release(scopedKey);
+                }
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+                if (store) {
+                    responseWriter.execute(() -> storeResponse(scopedKey, value));
+                }
+            }
+        });
+        return result;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.idempotency.eviction-interval-ms:60000}")
+    public int evictExpired() {
+        int evicted = 0;
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (!entry.isExpired()) {
+                    break;
+                }
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.eviction-interval-ms:60000}")
+    @ClusterJob(name = "idempotency-keys-prune")
+    public void pruneExpiredClaims() {
+        jdbcTemplate.update(PRUNE_SQL, ttlMinutes);
+    }
+
+    // Another node (or an earlier run of this one) holds the key
+    private <T> T replay(String scopedKey, String fingerprint, String operation, Class<T> resultType) {
+        List<String[]> stored = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new String[]{rs.getString("fingerprint"), rs.getString("response")}, scopedKey);
+        if (stored.isEmpty()) {
+            // Pruned between the claim and this read
+            throw new RequestInProgressException("Request with this Idempotency-Key has expired, please retry");
+        }
+        if (!stored.get(0)[0].equals(fingerprint)) {
+            throw new BusinessException("Idempotency-Key was already used for a different request");
+        }
+        if (stored.get(0)[1] == null) {
+            throw new RequestInProgressException("Request with this Idempotency-Key is still being processed");
+        }
+        meterRegistry.counter("bandongho.idempotency.replayed", "operation", operation).increment();
+        try {
+            return objectMapper.readValue(stored.get(0)[1], resultType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key cannot be read", e);
+        }
+    }
+
+    private void storeResponse(String scopedKey, Object value) {
+        try {
+            jdbcTemplate.update(STORE_SQL, objectMapper.writeValueAsString(value), scopedKey);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The claim stays, so retries get 409 instead of running again
+            System.err.println("Error storing response for idempotency key " + scopedKey + ": " + e.getMessage());
+        }
+    }
+
+    private void release(String scopedKey) {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, scopedKey);
+        } catch (RuntimeException e) {
+            System.err.println("Error releasing idempotency key " + scopedKey + ": " + e.getMessage());
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private void forget(String scopedKey, CompletableFuture<?> result) {
+        synchronized (entries) {
+            Entry entry = entries.get(scopedKey);
+            if (entry != null && entry.result == result) {
+                entries.remove(scopedKey);
+            }
+        }
+    }
+
+    private final class Entry {
+        private final CompletableFuture<?> result;
+        private final String fingerprint;
+        private final long createdAt;
+
+        private Entry(CompletableFuture<?> result, String fingerprint, long createdAt) {
+            this.result = result;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - createdAt > TimeUnit.MINUTES.toNanos(ttlMinutes);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.dtos.ProductDTO;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.ResourceNotFoundException;
+import com.bandongho.repositories.ProductRepository;
+import com.bandongho.services.ImageService;
+import com.bandongho.services.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Product images on local disk, named by the SHA-256 of their content so every URL is immutable
+// and can be cached for a year. An upload stores the original and returns at once; a small worker
+// pool then makes resized JPEG variants and records them on the product as a srcset string.
+// Uploads whose variants were never made, because the queue was full or the node restarted, are
+// picked up by the sweep.
+@Service
+public class ImageServiceImpl implements ImageService {
+
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+    private static final Map<String, String> EXTENSIONS = Map.of("jpeg", "jpg", "png", "png", "gif", "gif", "webp", "webp");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg", "png", "image/png", "gif", "image/gif", "webp", "image/webp");
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.images.dir:./data/images}")
+    private String directory;
+
+    @Value("${app.images.public-base-url:http://localhost:8080/api/images}")
+    private String publicBaseUrl;
+
+    @Value("${app.images.widths:320,640,1024,1600}")
+    private int[] widths;
+
+    @Value("${app.images.quality:0.82}")
+    private float quality;
+
+    @Value("${app.images.max-pixels:25000000}")
+    private long maxPixels;
+
+    @Value("${app.images.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${app.images.queue-capacity:200}")
+    private int queueCapacity;
+
+    private Path root;
+    private ThreadPoolExecutor workers;
+    private Timer deriveTimer;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(directory).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            // Resizing is batch work; request threads come first
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        meterRegistry.gauge("bandongho.images.queue.size", workers.getQueue(), queue -> queue.size());
+        deriveTimer = Timer.builder("bandongho.images.derive")
+                .description("Time to generate all variants of one uploaded image")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public ProductDTO uploadProductImage(Long productId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException("Image file is required");
+        }
+        productService.getProductById(productId);
+
+        byte[] bytes;
+        try {
+            bytes = file.getBytes();
+        } catch (IOException e) {
+            throw new BusinessException("Could not read uploaded image: " + e.getMessage());
+        }
+        String fileName = sha256(bytes) + "." + probeExtension(bytes);
+        try {
+            store(fileName, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store image " + fileName, e);
+        }
+
+        ProductDTO product = productService.replaceImage(productId, publicBaseUrl + "/" + fileName);
+        enqueue(productId, fileName);
+        return product;
+    }
+
+    @Override
+    public Path resolveFile(String fileName) {
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            throw new ResourceNotFoundException("Image not found: " + fileName);
+        }
+        Path file = root.resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Image not found: " + fileName);
+        }
+        return file;
+    }
+
+    @Override
+    public String getContentType(String fileName) {
+        return CONTENT_TYPES.getOrDefault(fileName.substring(fileName.lastIndexOf('.') + 1), "application/octet-stream");
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.sweep-interval-ms:600000}", initialDelayString = "${app.images.sweep-initial-delay-ms:60000}")
+    public void sweepMissingVariants() {
+        String prefix = publicBaseUrl + "/";
+        try {
+            for (Object[] row : productRepository.findImagesWithoutVariants(prefix + "%", PageRequest.of(0, queueCapacity))) {
+                String fileName = ((String) row[1]).substring(prefix.length());
+                if (FILE_NAME.matcher(fileName).matches() && Files.isRegularFile(root.resolve(fileName))) {
+                    enqueue((Long) row[0], fileName);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Image variant sweep failed: " + e.getMessage());
+        }
+    }
+
+    private void enqueue(Long productId, String fileName) {
+        String key = productId + ":" + fileName;
+        if (!inFlight.add(key)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    deriveTimer.record(() -> derive(productId, fileName));
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            meterRegistry.counter("bandongho.images.rejected").increment();
+            System.err.println("Image queue full; variants for product " + productId + " are left to the next sweep");
+        }
+    }
+
+    private void derive(Long productId, String fileName) {
+        String imageUrl = publicBaseUrl + "/" + fileName;
+        try {
+            BufferedImage original = ImageIO.read(root.resolve(fileName).toFile());
+            if (original == null) {
+                throw new IOException("no ImageIO reader for " + fileName);
+            }
+            List<String> sources = new ArrayList<>();
+            for (int width : targetWidths(original.getWidth())) {
+                sources.add(storeVariant(encode(resize(original, width), "jpeg"), "jpg") + " " + width + "w");
+            }
+            productService.attachImageVariants(productId, imageUrl, String.join(", ", sources));
+            meterRegistry.counter("bandongho.images.derived", "result", "success").increment();
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("bandongho.images.derived", "result", "failure").increment();
+            System.err.println("Generating image variants for product " + productId + " failed: " + e.getMessage());
+            try {
+                // An empty srcset keeps the sweep from retrying an image that cannot be decoded
+                productService.attachImageVariants(productId, imageUrl, "");
+            } catch (RuntimeException ignored) {
+                // Left for the sweep
+            }
+        }
+    }
+
+    // Configured widths below the original, plus the original width itself; never upscales
+    private List<Integer> targetWidths(int originalWidth) {
+        List<Integer> targets = new ArrayList<>();
+        int largest = 0;
+        for (int width : widths) {
+            if (width < originalWidth) {
+                targets.add(width);
+            }
+            largest = Math.max(largest, width);
+        }
+        if (originalWidth <= largest) {
+            targets.add(originalWidth);
+        }
+        return targets;
+    }
+
+    // Halves the size step by step before the final scale: one big bilinear step skips most source
+    // pixels and aliases badly. Draws onto white because JPEG has no alpha channel.
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = stepWidth == width ? height : Math.max(height, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, stepWidth, stepHeight);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            if (param.canWriteProgressive()) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private String storeVariant(byte[] bytes, String extension) throws IOException {
+        String fileName = sha256(bytes) + "." + extension;
+        store(fileName, bytes);
+        return publicBaseUrl + "/" + fileName;
+    }
+
+    // Same name = same content, so an existing file is kept; readers never see a half-written one
+    private void store(String fileName, byte[] bytes) throws IOException {
+        Path target = root.resolve(fileName);
+        if (Files.exists(target)) {
+            return;
+        }
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Reads only the header: checks the format and size before anything decodes the pixels
+    private String probeExtension(byte[] bytes) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new BusinessException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                String extension = EXTENSIONS.get(reader.getFormatName().toLowerCase(Locale.ROOT));
+                if (extension == null) {
+                    throw new BusinessException("Unsupported image format: " + reader.getFormatName());
+                }
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new BusinessException("Image is larger than " + maxPixels + " pixels");
+                }
+                return extension;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new BusinessException("Unreadable image: " + e.getMessage());
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.aspects.ClusterJob;
+import com.bandongho.aspects.ClusterJobAspect;
+import com.bandongho.dtos.InventoryMovementDTO;
+import com.bandongho.dtos.InventoryStatusDTO;
+import com.bandongho.dtos.ReconciliationReportDTO;
+import com.bandongho.dtos.StockMismatchDTO;
+import com.bandongho.entities.InventoryMovement;
+import com.bandongho.entities.InventorySnapshot;
+import com.bandongho.entities.Product;
+import com.bandongho.exceptions.ResourceNotFoundException;
+import com.bandongho.repositories.InventoryMovementRepository;
+import com.bandongho.repositories.InventorySnapshotRepository;
+import com.bandongho.repositories.ProductRepository;
+import com.bandongho.services.InventoryLedgerService;
+import com.bandongho.services.LeaseService;
+import com.bandongho.services.StockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Audit trail of stock changes, not the stock of record. Checkout has to check and take stock in one
+// atomic step, and a log of deltas cannot refuse an oversell without serializing on some per-product
+// row anyway, so products.stock (or the shard rows of a hot SKU, see StockServiceImpl) stays the
+// counter every write checks and updates. Each change also inserts a movement in the same
+// transaction; snapshot + later movements is the ledger's own view of stock, which compaction keeps
+// cheap to compute and reconciliation compares against the counter. Contention on hot products is
+// handled by stock sharding, not by this ledger.
+@Service
+@Transactional
+public class InventoryLedgerServiceImpl implements InventoryLedgerService {
+
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+    private static final String INSERT_MOVEMENT_SQL = "INSERT INTO inventory_movements (product_id, delta, type, reference, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Movements younger than this are left for the next run, so a slow transaction that
+    // took a lower id but has not committed yet is never skipped by the watermark
+    @Value("${app.inventory.compaction-lag-seconds:60}")
+    private long compactionLagSeconds;
+
+    @Value("${app.inventory.retention-days:90}")
+    private long retentionDays;
+
+    @Value("${app.inventory.reconciliation-threads:4}")
+    private int reconciliationThreads;
+
+    @Value("${app.inventory.reconciliation-chunk-size:2000}")
+    private int reconciliationChunkSize;
+
+    private final AtomicInteger lastMismatchCount = new AtomicInteger();
+    private volatile ReconciliationReportDTO lastReconciliation;
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gauge("bandongho.inventory.reconciliation.mismatches", lastMismatchCount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @ClusterJob(name = "inventory-opening-balances")
+    public void openMissingBalances() {
+        fence();
+        int opened = movementRepository.insertOpeningBalances();
+        if (opened > 0) {
+            System.out.println("Inventory ledger: opened balances for " + opened + " products");
+        }
+    }
+
+    @Override
+    public void recordMovement(Long productId, int delta, InventoryMovement.MovementType type, String reference) {
+        if (delta == 0) {
+            return;
+        }
+        InventoryMovement movement = new InventoryMovement();
+        movement.setProductId(productId);
+        movement.setDelta(delta);
+        movement.setType(type);
+        movement.setReference(reference);
+        movementRepository.save(movement);
+    }
+
+    // One JDBC batch for bulk writers; the rows are the same ones recordMovement would save one by one
+    @Override
+    public void recordMovements(Map<Long, Integer> deltasByProductId, InventoryMovement.MovementType type, String reference) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        deltasByProductId.forEach((productId, delta) -> {
+            if (delta != 0) {
+                rows.add(new Object[]{productId, delta, type.name(), reference, now});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, rows);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public InventoryStatusDTO getInventoryStatus(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+
+        InventorySnapshot snapshot = snapshotRepository.findById(productId).orElse(null);
+        int snapshotStock = snapshot != null ? snapshot.getStock() : 0;
+        long lastMovementId = snapshot != null ? snapshot.getLastMovementId() : 0L;
+        long recentDelta = movementRepository.sumDeltaAfter(productId, lastMovementId);
+
+        InventoryStatusDTO dto = new InventoryStatusDTO();
+        dto.setProductId(productId);
+        dto.setProductStock(stockService.getStock(product));
+        dto.setLedgerStock((int) (snapshotStock + recentDelta));
+        dto.setSnapshotStock(snapshotStock);
+        dto.setSnapshotLastMovementId(lastMovementId);
+        dto.setRecentMovements(movementRepository.findRecentByProductId(productId, PageRequest.of(0, 20)).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.inventory.compaction-interval-ms:300000}",
+            initialDelayString = "${app.inventory.compaction-interval-ms:300000}")
+    @ClusterJob(name = "inventory-compaction", keepMs = "${app.inventory.compaction-lease-keep-ms:240000}")
+    public int compact() {
+        fence();
+        Long upToId = movementRepository.findMaxIdCreatedBefore(LocalDateTime.now().minusSeconds(compactionLagSeconds));
+        if (upToId == null) {
+            return 0;
+        }
+        int compacted = snapshotRepository.compactUpTo(upToId);
+        int pruned = movementRepository.deleteCompactedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (compacted > 0 || pruned > 0) {
+            System.out.println("Inventory ledger compacted " + compacted + " products up to movement " + upToId
+                    + ", pruned " + pruned + " movements");
+        }
+        return compacted;
+    }
+
+    @Override
+    @Scheduled(cron = "${app.inventory.reconciliation-cron:0 30 3 * * *}")
+    @ClusterJob(name = "inventory-reconciliation", keepMs = "${app.inventory.reconciliation-lease-keep-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReconciliationReportDTO reconcile() {
+        long startedAt = System.currentTimeMillis();
+        Long minId = productRepository.findMinId();
+        Long maxId = productRepository.findMaxId();
+
+        int checked = 0;
+        int mismatchCount = 0;
+        List<StockMismatchDTO> mismatches = new ArrayList<>();
+
+        if (minId != null) {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, reconciliationThreads));
+            try {
+                List<Future<List<Object[]>>> chunks = new ArrayList<>();
+                for (long from = minId; from <= maxId; from += reconciliationChunkSize) {
+                    long chunkFrom = from;
+                    long chunkTo = Math.min(from + reconciliationChunkSize - 1, maxId);
+                    chunks.add(pool.submit(() -> snapshotRepository.findStockComparison(chunkFrom, chunkTo)));
+                }
+                for (Future<List<Object[]>> chunk : chunks) {
+                    for (Object[] row : chunk.get()) {
+                        checked++;
+                        int productStock = ((Number) row[1]).intValue();
+                        int ledgerStock = ((Number) row[2]).intValue();
+                        if (productStock != ledgerStock) {
+                            mismatchCount++;
+                            if (mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                                mismatches.add(new StockMismatchDTO(((Number) row[0]).longValue(), productStock, ledgerStock));
+                            }
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Inventory reconciliation interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Inventory reconciliation failed: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        ReconciliationReportDTO report = new ReconciliationReportDTO(checked, mismatchCount, mismatches,
+                System.currentTimeMillis() - startedAt, LocalDateTime.now());
+        lastMismatchCount.set(mismatchCount);
+        lastReconciliation = report;
+        if (mismatchCount > 0) {
+            System.err.println("Inventory reconciliation found " + mismatchCount + " of " + checked
+                    + " products whose stock differs from the ledger");
+        }
+        return report;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReconciliationReportDTO getLastReconciliation() {
+        return lastReconciliation;
+    }
+
+    // Locks the job's lease row for the rest of this transaction, so a node whose lease was taken
+    // over while it was paused fails here instead of writing next to the new holder
+    private void fence() {
+        LeaseService.Lease lease = ClusterJobAspect.currentLease();
+        if (lease != null) {
+            leaseService.assertHeld(lease);
+        }
+    }
+
+    private InventoryMovementDTO convertToDTO(InventoryMovement movement) {
+        InventoryMovementDTO dto = new InventoryMovementDTO();
+        dto.setId(movement.getId());
+        dto.setProductId(movement.getProductId());
+        dto.setDelta(movement.getDelta());
+        dto.setType(movement.getType());
+        dto.setReference(movement.getReference());
+        dto.setCreatedAt(movement.getCreatedAt());
+        return dto;
+    }
+}
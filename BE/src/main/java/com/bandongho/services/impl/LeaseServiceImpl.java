@@ -0,0 +1,186 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.configs.NodeIdentity;
+import com.bandongho.exceptions.LeaseLostException;
+import com.bandongho.services.LeaseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Database leases for work that must run on one node at a time. Acquiring bumps the lease's
+// fencing token, so every holder has a token no earlier holder had. Work that writes calls
+// assertHeld() inside its own transaction: that renews the lease in the transaction, which checks
+// the token and locks the lease row, so a holder whose lease has meanwhile been taken over fails
+// instead of writing, and a new holder cannot take over until the old holder's transaction has
+// finished. Statements run outside a job's transaction wait at most a second for that row lock.
+@Service
+public class LeaseServiceImpl implements LeaseService {
+
+    private static final String NO_LONG_WAIT = "SET STATEMENT innodb_lock_wait_timeout = 1 FOR ";
+    private static final String CREATE_SQL = NO_LONG_WAIT + "INSERT IGNORE INTO job_leases (name, owner, fencing_token, expires_at, acquired_at) " +
+            "VALUES (?, '', 0, NOW(3), NOW(3))";
+    private static final String ACQUIRE_SQL = NO_LONG_WAIT + "UPDATE job_leases SET owner = ?, fencing_token = fencing_token + 1, " +
+            "expires_at = DATE_ADD(NOW(3), INTERVAL ? * 1000 MICROSECOND), acquired_at = NOW(3) " +
+            "WHERE name = ? AND expires_at <= NOW(3)";
+    private static final String RENEW_SQL = "UPDATE job_leases SET expires_at = DATE_ADD(NOW(3), INTERVAL ? * 1000 MICROSECOND) " +
+            "WHERE name = ? AND owner = ? AND fencing_token = ? AND expires_at > NOW(3)";
+    // Only used while this transaction holds the row, so nobody can have taken the lease over
+    private static final String EXTEND_SQL = "UPDATE job_leases SET expires_at = DATE_ADD(NOW(3), INTERVAL ? * 1000 MICROSECOND) " +
+            "WHERE name = ? AND owner = ? AND fencing_token = ?";
+    private static final String RELEASE_SQL = "UPDATE job_leases " +
+            "SET expires_at = GREATEST(NOW(3), DATE_ADD(acquired_at, INTERVAL ? * 1000 MICROSECOND)) " +
+            "WHERE name = ? AND owner = ? AND fencing_token = ?";
+    private static final String TOKEN_SQL = "SELECT fencing_token FROM job_leases WHERE name = ? AND owner = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lease-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Lease tryAcquire(String name, long ttlMs) {
+        String owner = nodeIdentity.getNodeId();
+        try {
+            jdbcTemplate.update(CREATE_SQL, name);
+            if (jdbcTemplate.update(ACQUIRE_SQL, owner, ttlMs, name) != 1) {
+                return null;
+            }
+        } catch (PessimisticLockingFailureException e) {
+            // The holder's job transaction has the row locked, so the lease is held
+            return null;
+        }
+        // Nobody else can change the token before our lease expires
+        List<Long> tokens = jdbcTemplate.queryForList(TOKEN_SQL, Long.class, name, owner);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        meterRegistry.counter("bandongho.lease.acquired", "lease", name).increment();
+        return new Lease(name, owner, tokens.get(0), ttlMs);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean renew(Lease lease) {
+        return jdbcTemplate.update(NO_LONG_WAIT + RENEW_SQL, lease.getTtlMs(), lease.getName(), lease.getOwner(), lease.getFencingToken()) == 1;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void release(Lease lease, long keepMs) {
+        jdbcTemplate.update(RELEASE_SQL, keepMs, lease.getName(), lease.getOwner(), lease.getFencingToken());
+    }
+
+    // Renews the lease in the caller's transaction rather than only reading it: the renewal checks
+    // the token and keeps the row locked until the transaction ends. The background renewer would
+    // only wait on that lock, so it skips the lease meanwhile and the lease is renewed again just
+    // before commit; a transaction longer than the TTL therefore keeps its lease.
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void assertHeld(Lease lease) {
+        String resource = "lease-fence:" + lease.getName();
+        if (TransactionSynchronizationManager.hasResource(resource)) {
+            // Checked earlier in this transaction, which has held the row since
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(resource, lease);
+        lease.fenceOpened();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                jdbcTemplate.update(EXTEND_SQL, lease.getTtlMs(), lease.getName(), lease.getOwner(), lease.getFencingToken());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(resource);
+                lease.fenceClosed();
+            }
+        });
+
+        boolean held = jdbcTemplate.update(RENEW_SQL, lease.getTtlMs(), lease.getName(), lease.getOwner(), lease.getFencingToken()) == 1;
+        if (!held) {
+            lease.markLost();
+            meterRegistry.counter("bandongho.lease.fenced", "lease", lease.getName()).increment();
+            throw new LeaseLostException("Lease " + lease.getName() + " with token " + lease.getFencingToken()
+                    + " is no longer held by this node");
+        }
+    }
+
+    // Runs outside any caller transaction; the job opens its own and calls assertHeld() in it.
+    // keepMs keeps the lease taken for that long after acquiring even if the job finishes sooner,
+    // so nodes whose schedule fires a little later in the same period skip instead of re-running.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean runExclusive(String name, long ttlMs, long keepMs, Consumer<Lease> job) {
+        Lease lease = tryAcquire(name, ttlMs);
+        if (lease == null) {
+            meterRegistry.counter("bandongho.lease.skipped", "lease", name).increment();
+            return false;
+        }
+
+        // Renew at a third of the TTL so a single missed renewal does not lose the lease
+        long period = Math.max(1, ttlMs / 3);
+        // A task that throws is never run again, so errors mark the lease lost instead of escaping
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(() -> {
+            if (lease.isLost() || lease.isFenced()) {
+                return;
+            }
+            try {
+                if (!renew(lease)) {
+                    lose(lease, "renewal found it taken over or expired");
+                }
+            } catch (RuntimeException e) {
+                if (!lease.isFenced()) {
+                    lose(lease, "renewal failed: " + e.getMessage());
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        try {
+            job.accept(lease);
+            return true;
+        } finally {
+            renewal.cancel(false);
+            if (!lease.isLost()) {
+                release(lease, keepMs);
+            }
+        }
+    }
+
+    private void lose(Lease lease, String reason) {
+        lease.markLost();
+        meterRegistry.counter("bandongho.lease.lost", "lease", lease.getName()).increment();
+        System.err.println("Lost lease " + lease.getName() + " (token " + lease.getFencingToken() + "): " + reason);
+    }
+
+}
@@ -0,0 +1,409 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.dtos.OrderDTO;
+import com.bandongho.dtos.UserDTO;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.entities.Order;
+import com.bandongho.entities.User;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.events.OrderChangedEvent;
+import com.bandongho.events.OrderPlacedEvent;
+import com.bandongho.events.UserChangedEvent;
+import com.bandongho.repositories.OrderRepository;
+import com.bandongho.repositories.UserRepository;
+import com.bandongho.services.OrderSearchService;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory trigram index for admin order search. Order numbers and order phones are indexed per
+// order; customer email, name and phone are indexed per user and expanded to that user's orders,
+// so a user update touches one entry instead of every order they placed. Results are candidates
+// only - callers confirm them with matches() after loading the page from the database.
+@Service
+public class OrderSearchServiceImpl implements OrderSearchService {
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.order-search.bootstrap-chunk-size:10000}")
+    private int bootstrapChunkSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // trigram -> ascending order ids
+    private final Long2ObjectOpenHashMap<IntArrayList> orderGrams = new Long2ObjectOpenHashMap<>();
+
+    // trigram -> ascending user ids
+    private final Long2ObjectOpenHashMap<IntArrayList> userGrams = new Long2ObjectOpenHashMap<>();
+
+    // userId -> normalised email, name and phone separated by newlines, kept so user matches can be confirmed in memory
+    private final Int2ObjectOpenHashMap<String> userTexts = new Int2ObjectOpenHashMap<>();
+
+    // userId -> ascending order ids
+    private final Int2ObjectOpenHashMap<IntArrayList> userOrders = new Int2ObjectOpenHashMap<>();
+
+    // Orders up to this id are indexed by the bootstrap scan; live events for them are ignored
+    private volatile long historyBound = Long.MAX_VALUE;
+    private volatile boolean ready = false;
+
+    private final AtomicBoolean rescanning = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::loadIndex, "order-search-bootstrap");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public synchronized void loadIndex() {
+        if (ready) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+
+        List<Object[]> users = userRepository.findSearchFields();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : users) {
+                int userId = Math.toIntExact((Long) row[0]);
+                // A live update already indexed a newer version of this user
+                if (!userTexts.containsKey(userId)) {
+                    indexUser(userId, (String) row[1], (String) row[2], (String) row[3]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Long minOrderId = orderRepository.findMinId();
+        Long maxOrderId = orderRepository.findMaxId();
+        historyBound = maxOrderId != null ? maxOrderId : 0L;
+
+        if (minOrderId != null) {
+            indexOrders(minOrderId, maxOrderId);
+        }
+        ready = true;
+
+        System.out.println("Order search index loaded for " + users.size() + " users in "
+                + (System.currentTimeMillis() - startedAt) + " ms");
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public long[] findCandidates(String keyword, long beforeId, int max) {
+        String needle = normalize(keyword);
+        long[] grams = trigrams(needle);
+        if (grams.length == 0 || max <= 0) {
+            return new long[0];
+        }
+        int before = (int) Math.min(beforeId, Integer.MAX_VALUE);
+
+        IntArrayList candidates = new IntArrayList();
+        lock.readLock().lock();
+        try {
+            candidates.addAll(topIntersection(orderGrams, grams, before, max));
+            for (int userId : topIntersection(userGrams, grams, Integer.MAX_VALUE, Integer.MAX_VALUE)) {
+                String text = userTexts.get(userId);
+                IntArrayList orders = userOrders.get(userId);
+                if (text != null && orders != null && text.contains(needle)) {
+                    int end = lowerBound(orders, before);
+                    for (int i = end - 1; i >= Math.max(0, end - max); i--) {
+                        candidates.add(orders.getInt(i));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int[] ids = candidates.toIntArray();
+        Arrays.sort(ids);
+        long[] result = new long[ids.length];
+        int size = 0;
+        for (int i = ids.length - 1; i >= 0 && size < max; i--) {
+            if (size == 0 || result[size - 1] != ids[i]) {
+                result[size++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public boolean matches(Order order, String keyword) {
+        String needle = normalize(keyword);
+        return contains(order.getOrderNumber(), needle)
+                || contains(order.getPhoneNumber(), needle)
+                || contains(order.getUser().getEmail(), needle)
+                || contains(order.getUser().getFullName(), needle)
+                || contains(order.getUser().getPhone(), needle);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        OrderDTO order = event.getOrder();
+        if (order.getId() <= historyBound) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            indexOrder(Math.toIntExact(order.getId()), order.getOrderNumber(), order.getPhoneNumber(),
+                    Math.toIntExact(order.getUserId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Only new text is added here; grams of a replaced phone number stay behind and are
+    // filtered out by matches(), and deleted ids simply fail to load.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderDTO order = event.getOrder();
+        if (order == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            addGrams(orderGrams, Math.toIntExact(order.getId()), order.getPhoneNumber());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        int userId = Math.toIntExact(event.getUserId());
+        UserDTO user = event.getUser();
+        lock.writeLock().lock();
+        try {
+            if (user == null) {
+                unindexUser(userId);
+                userOrders.remove(userId);
+            } else {
+                indexUser(userId, user.getEmail(), user.getFullName(), user.getPhone());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A user or order was changed on another node: re-read its search fields
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.getEntityType() != CacheInvalidation.EntityType.ORDER
+                && event.getEntityType() != CacheInvalidation.EntityType.USER) {
+            return;
+        }
+        if (event.getEntityId() == null) {
+            rescan();
+            return;
+        }
+        if (event.getEntityType() == CacheInvalidation.EntityType.ORDER) {
+            // Indexing only adds grams, so re-reading an order that is already indexed is harmless;
+            // a deleted order is simply not found
+            indexOrders(event.getEntityId(), event.getEntityId());
+            return;
+        }
+
+        User user = userRepository.findById(event.getEntityId()).orElse(null);
+        int userId = Math.toIntExact(event.getEntityId());
+        lock.writeLock().lock();
+        try {
+            if (user == null) {
+                unindexUser(userId);
+                userOrders.remove(userId);
+            } else {
+                indexUser(userId, user.getEmail(), user.getFullName(), user.getPhone());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Unknown changes (entityId == null) re-read every user and order off the caller's thread; a
+    // request that arrives while a rescan is running is covered by it and dropped
+    private void rescan() {
+        if (!rescanning.compareAndSet(false, true)) {
+            return;
+        }
+        Thread rescan = new Thread(() -> {
+            try {
+                List<Object[]> users = userRepository.findSearchFields();
+                lock.writeLock().lock();
+                try {
+                    for (Object[] row : users) {
+                        indexUser(Math.toIntExact((Long) row[0]), (String) row[1], (String) row[2], (String) row[3]);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                Long minOrderId = orderRepository.findMinId();
+                Long maxOrderId = orderRepository.findMaxId();
+                if (minOrderId != null) {
+                    indexOrders(minOrderId, maxOrderId);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Error rescanning the order search index: " + e.getMessage());
+            } finally {
+                rescanning.set(false);
+            }
+        }, "order-search-rescan");
+        rescan.setDaemon(true);
+        rescan.start();
+    }
+
+    private void indexOrders(long fromId, long toId) {
+        for (long from = fromId; from <= toId; from += bootstrapChunkSize) {
+            long to = Math.min(from + bootstrapChunkSize - 1, toId);
+            List<Object[]> orders = orderRepository.findSearchFields(from, to);
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : orders) {
+                    indexOrder(Math.toIntExact((Long) row[0]), (String) row[1], (String) row[2],
+                            Math.toIntExact((Long) row[3]));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void indexOrder(int orderId, String orderNumber, String phoneNumber, int userId) {
+        addGrams(orderGrams, orderId, orderNumber);
+        addGrams(orderGrams, orderId, phoneNumber);
+        insertSorted(userOrders.computeIfAbsent(userId, id -> new IntArrayList()), orderId);
+    }
+
+    private void indexUser(int userId, String email, String fullName, String phone) {
+        unindexUser(userId);
+        String text = normalize(email) + "\n" + normalize(fullName) + "\n" + normalize(phone);
+        userTexts.put(userId, text);
+        addGrams(userGrams, userId, email);
+        addGrams(userGrams, userId, fullName);
+        addGrams(userGrams, userId, phone);
+    }
+
+    private void unindexUser(int userId) {
+        String previous = userTexts.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        for (String field : previous.split("\n")) {
+            for (long gram : trigrams(field)) {
+                IntArrayList postings = userGrams.get(gram);
+                if (postings == null) {
+                    continue;
+                }
+                int pos = Arrays.binarySearch(postings.elements(), 0, postings.size(), userId);
+                if (pos >= 0) {
+                    postings.removeInt(pos);
+                }
+                if (postings.isEmpty()) {
+                    userGrams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static void addGrams(Long2ObjectOpenHashMap<IntArrayList> index, int id, String text) {
+        for (long gram : trigrams(normalize(text))) {
+            insertSorted(index.computeIfAbsent(gram, g -> new IntArrayList()), id);
+        }
+    }
+
+    // Ids arrive almost always in ascending order, so this is normally an append
+    private static void insertSorted(IntArrayList postings, int id) {
+        int size = postings.size();
+        if (size == 0 || postings.getInt(size - 1) < id) {
+            postings.add(id);
+            return;
+        }
+        int pos = Arrays.binarySearch(postings.elements(), 0, size, id);
+        if (pos < 0) {
+            postings.add(-pos - 1, id);
+        }
+    }
+
+    // Largest ids below 'before' present in every posting list, walking the shortest list from the top
+    private static IntArrayList topIntersection(Long2ObjectOpenHashMap<IntArrayList> index, long[] grams,
+                                                int before, int max) {
+        IntArrayList result = new IntArrayList();
+        List<IntArrayList> lists = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            IntArrayList postings = index.get(gram);
+            if (postings == null) {
+                return result;
+            }
+            lists.add(postings);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        IntArrayList shortest = lists.get(0);
+        for (int i = lowerBound(shortest, before) - 1; i >= 0 && result.size() < max; i--) {
+            int id = shortest.getInt(i);
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                IntArrayList other = lists.get(j);
+                inAll = Arrays.binarySearch(other.elements(), 0, other.size(), id) >= 0;
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static int lowerBound(IntArrayList postings, int before) {
+        int pos = Arrays.binarySearch(postings.elements(), 0, postings.size(), before);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private static long[] trigrams(String text) {
+        if (text.length() < GRAM) {
+            return new long[0];
+        }
+        LongOpenHashSet grams = new LongOpenHashSet();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams.toLongArray();
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && normalize(value).contains(needle);
+    }
+
+    // Lower-case and strip Vietnamese diacritics to approximate the utf8mb4_unicode_ci collation
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").replace('đ', 'd');
+    }
+}
@@ -1,31 +1,95 @@
 package com.bandongho.services.impl;
 
+import com.bandongho.aspects.RetryOnConflict;
+import com.bandongho.dtos.BulkOrderStatusRequest;
+import com.bandongho.dtos.BulkOrderStatusResultDTO;
 import com.bandongho.dtos.CheckoutRequest;
+import com.bandongho.dtos.CursorPageDTO;
 import com.bandongho.dtos.OrderDTO;
 import com.bandongho.dtos.OrderItemDTO;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.entities.InventoryMovement;
 import com.bandongho.entities.Order;
 import com.bandongho.entities.OrderItem;
 import com.bandongho.entities.Product;
 import com.bandongho.entities.User;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.events.OrderChangedEvent;
+import com.bandongho.events.OrderPlacedEvent;
+import com.bandongho.events.OrderStatusChangedEvent;
 import com.bandongho.exceptions.ResourceNotFoundException;
 import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.StaleVersionException;
 import com.bandongho.repositories.OrderRepository;
 import com.bandongho.repositories.ProductRepository;
-import com.bandongho.services.EmailService;
+import com.bandongho.services.CacheInvalidationService;
+import com.bandongho.services.CartService;
+import com.bandongho.services.InventoryLedgerService;
+import com.bandongho.services.OrderSearchService;
 import com.bandongho.services.OrderService;
+import com.bandongho.services.StockReservationService;
+import com.bandongho.services.StockService;
 import com.bandongho.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final String LOCK_ORDERS_SQL = "SELECT id, status FROM orders WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    private static final String UPDATE_STATUS_SQL = "UPDATE orders SET status = ?, version = version + 1, updated_at = ? WHERE id IN (%s)";
+    // Unsharded stock goes back in one statement; sharded products go through StockService
+    private static final String RESTOCK_SQL = "UPDATE products p JOIN (SELECT product_id, SUM(quantity) AS quantity " +
+            "FROM order_items WHERE order_id IN (%s) GROUP BY product_id) i ON i.product_id = p.id " +
+            "SET p.stock = p.stock + i.quantity, p.version = p.version + 1 WHERE p.stock_shards = 0";
+    private static final String SHARDED_RESTOCK_SQL = "SELECT i.product_id, SUM(i.quantity) FROM order_items i " +
+            "JOIN products p ON p.id = i.product_id WHERE i.order_id IN (%s) AND p.stock_shards > 0 GROUP BY i.product_id";
+    private static final String RESTOCKED_PRODUCTS_SQL = "SELECT DISTINCT product_id FROM order_items WHERE order_id IN (%s)";
+    // Above this many restocked products other nodes are told to drop all products instead of each one
+    private static final int MAX_PRODUCT_INVALIDATIONS = 100;
+    private static final String RESTOCK_MOVEMENTS_SQL = "INSERT INTO inventory_movements (product_id, delta, type, reference, created_at) " +
+            "SELECT product_id, quantity, 'CANCELLATION_RESTOCK', CONCAT('order:', order_id), ? FROM order_items WHERE order_id IN (%s)";
+
+    // Transitions a bulk update may make. Reopening a cancelled order needs stock again and stays a
+    // one-order-at-a-time decision; delivered orders are final.
+    private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> BULK_TRANSITIONS = new EnumMap<>(Map.of(
+            Order.OrderStatus.PENDING, EnumSet.of(Order.OrderStatus.PROCESSING, Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED),
+            Order.OrderStatus.PROCESSING, EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED),
+            Order.OrderStatus.DELIVERED, EnumSet.noneOf(Order.OrderStatus.class),
+            Order.OrderStatus.CANCELLED, EnumSet.noneOf(Order.OrderStatus.class)));
+
+    // Last timestamp handed out as an order number; bumped so orders in the same millisecond stay unique
+    private static final AtomicLong lastOrderNumber = new AtomicLong();
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -36,11 +100,42 @@ public class OrderServiceImpl implements OrderService {
     private UserService userService;
 
     @Autowired
-    private EmailService emailService;
+    private OrderSearchService orderSearchService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.orders.bulk-status.batch-size:1000}")
+    private int bulkStatusBatchSize;
+
+    @Value("${app.orders.bulk-status.max-orders:10000}")
+    private int bulkStatusMaxOrders;
 
     @Override
+    @RetryOnConflict
     public OrderDTO createOrder(CheckoutRequest request, List<OrderItemDTO> cartItems) {
         if (cartItems == null || cartItems.isEmpty()) {
+            cartItems = cartService.getCheckoutItems(request.getUserId());
+        }
+        if (cartItems.isEmpty()) {
             throw new BusinessException("Cart is empty");
         }
 
@@ -51,18 +146,22 @@ public class OrderServiceImpl implements OrderService {
         order.setShippingAddress(request.getShippingAddress());
         order.setPhoneNumber(request.getPhoneNumber());
         order.setStatus(Order.OrderStatus.PENDING);
-        order.setOrderNumber("ORD" + System.currentTimeMillis());
+        order.setOrderNumber(nextOrderNumber());
 
         BigDecimal totalAmount = BigDecimal.ZERO;
 
+        // Stock already held by the checkout reservation is not taken again
+        Map<Long, Integer> wanted = new HashMap<>();
+        for (OrderItemDTO itemDTO : cartItems) {
+            wanted.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum);
+        }
+        Map<Long, Integer> reserved = stockReservationService.consume(request.getReservationId(), user.getId(),
+                wanted, "order:" + order.getOrderNumber());
+
         for (OrderItemDTO itemDTO : cartItems) {
             Product product = productRepository.findById(itemDTO.getProductId())
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemDTO.getProductId()));
 
-            if (product.getStock() < itemDTO.getQuantity()) {
-                throw new BusinessException("Insufficient stock for product: " + product.getName());
-            }
-
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
@@ -75,32 +174,47 @@ public class OrderServiceImpl implements OrderService {
             order.getOrderItems().add(orderItem);
             totalAmount = totalAmount.add(itemSubtotal);
 
-            // Update product stock
-            product.setStock(product.getStock() - itemDTO.getQuantity());
-            productRepository.save(product);
+            // Update product stock; throws if there is not enough
+            int fromReservation = Math.min(reserved.getOrDefault(product.getId(), 0), itemDTO.getQuantity());
+            if (fromReservation > 0) {
+                reserved.merge(product.getId(), -fromReservation, Integer::sum);
+            }
+            if (itemDTO.getQuantity() > fromReservation) {
+                stockService.decreaseStock(product, itemDTO.getQuantity() - fromReservation);
+            }
         }
 
         order.setTotalAmount(totalAmount);
         Order savedOrder = orderRepository.save(order);
+        for (OrderItem item : savedOrder.getOrderItems()) {
+            inventoryLedgerService.recordMovement(item.getProduct().getId(), -item.getQuantity(),
+                    InventoryMovement.MovementType.SALE, "order:" + savedOrder.getId());
+        }
+        OrderDTO savedDTO = convertToDTO(savedOrder);
+        // Order confirmation email is sent by EmailServiceImpl once this transaction commits
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.ORDER, savedDTO.getId());
 
-        // Send order confirmation email
-        emailService.sendOrderConfirmationEmail(
-                user.getEmail(),
-                user.getFullName(),
-                savedOrder.getOrderNumber(),
-                savedOrder.getTotalAmount().doubleValue()
-        );
-
-        return convertToDTO(savedOrder);
+        return savedDTO;
     }
 
+    // Not retried on conflict: status and contact details come from the client, so a lost race is a 409
     @Override
     public OrderDTO updateOrder(Long id, OrderDTO orderDTO) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        if (orderDTO.getVersion() != null && !orderDTO.getVersion().equals(order.getVersion())) {
+            throw new StaleVersionException("Order " + id + " was modified by another request. Reload it and try again.");
+        }
 
-        if (orderDTO.getStatus() != null) {
+        if (orderDTO.getStatus() != null && orderDTO.getStatus() != order.getStatus()) {
+            if (orderDTO.getStatus() == Order.OrderStatus.CANCELLED) {
+                restockCancelledOrder(order);
+            } else if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                reserveReopenedOrder(order);
+            }
             order.setStatus(orderDTO.getStatus());
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(List.of(id), orderDTO.getStatus()));
         }
         if (orderDTO.getShippingAddress() != null) {
             order.setShippingAddress(orderDTO.getShippingAddress());
@@ -110,10 +224,78 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order updatedOrder = orderRepository.save(order);
-        return convertToDTO(updatedOrder);
+        OrderDTO updatedDTO = convertToDTO(updatedOrder);
+        eventPublisher.publishEvent(new OrderChangedEvent(updatedDTO.getId(), updatedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.ORDER, id);
+        return updatedDTO;
     }
 
+    // Set-based: per batch of orders, one locking SELECT, one UPDATE and (for CANCELLED) one restock
+    // UPDATE plus one ledger INSERT ... SELECT, all in this transaction. Orders that are missing or
+    // cannot make the transition are reported and skipped. Emails go out from a queue after commit.
     @Override
+    public BulkOrderStatusResultDTO bulkUpdateStatus(BulkOrderStatusRequest request) {
+        long startedAt = System.currentTimeMillis();
+        List<Long> orderIds = request.getOrderIds().stream().distinct().sorted().toList();
+        if (orderIds.size() > bulkStatusMaxOrders) {
+            throw new BusinessException("At most " + bulkStatusMaxOrders + " orders per request");
+        }
+        Order.OrderStatus target = request.getStatus();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        BulkOrderStatusResultDTO result = new BulkOrderStatusResultDTO();
+        List<Long> changed = new ArrayList<>();
+        Set<Long> restocked = new HashSet<>();
+        for (int from = 0; from < orderIds.size(); from += bulkStatusBatchSize) {
+            List<Long> batch = orderIds.subList(from, Math.min(from + bulkStatusBatchSize, orderIds.size()));
+            Map<Long, Order.OrderStatus> current = new HashMap<>();
+            jdbcTemplate.query(String.format(LOCK_ORDERS_SQL, placeholders(batch.size())), rs -> {
+                current.put(rs.getLong(1), Order.OrderStatus.valueOf(rs.getString(2)));
+            }, batch.toArray());
+
+            List<Long> eligible = new ArrayList<>();
+            for (Long id : batch) {
+                Order.OrderStatus status = current.get(id);
+                if (status == null) {
+                    result.getNotFound().add(id);
+                } else if (status == target) {
+                    result.setUnchanged(result.getUnchanged() + 1);
+                } else if (!BULK_TRANSITIONS.get(status).contains(target)) {
+                    result.getRejected().add(id);
+                } else {
+                    eligible.add(id);
+                }
+            }
+            if (eligible.isEmpty()) {
+                continue;
+            }
+
+            Object[] ids = eligible.toArray();
+            String in = placeholders(eligible.size());
+            Object[] statusArgs = new Object[ids.length + 2];
+            statusArgs[0] = target.name();
+            statusArgs[1] = now;
+            System.arraycopy(ids, 0, statusArgs, 2, ids.length);
+            jdbcTemplate.update(String.format(UPDATE_STATUS_SQL, in), statusArgs);
+            if (target == Order.OrderStatus.CANCELLED) {
+                restocked.addAll(restockCancelledOrders(ids, in, now));
+            }
+            changed.addAll(eligible);
+        }
+
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(changed, target));
+        }
+        if (!restocked.isEmpty()) {
+            invalidateProductsAfterCommit(restocked);
+        }
+        result.setUpdated(changed.size());
+        result.setDurationMs(System.currentTimeMillis() - startedAt);
+        return result;
+    }
+
+    @Override
+    @RetryOnConflict
     public OrderDTO updateOrderItemQuantity(Long orderId, Long orderItemId, Integer quantity) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
@@ -130,8 +312,11 @@ public class OrderServiceImpl implements OrderService {
         Product product = orderItem.getProduct();
         int stockDifference = quantity - orderItem.getQuantity();
 
-        if (product.getStock() < stockDifference) {
-            throw new BusinessException("Insufficient stock for product: " + product.getName());
+        // Update product stock
+        if (stockDifference > 0) {
+            stockService.decreaseStock(product, stockDifference);
+        } else if (stockDifference < 0) {
+            stockService.increaseStock(product, -stockDifference);
         }
 
         orderItem.setQuantity(quantity);
@@ -139,9 +324,8 @@ public class OrderServiceImpl implements OrderService {
         BigDecimal itemSubtotal = orderItem.getPrice().multiply(BigDecimal.valueOf(quantity));
         orderItem.setSubtotal(itemSubtotal);
 
-        // Update product stock
-        product.setStock(product.getStock() - stockDifference);
-        productRepository.save(product);
+        inventoryLedgerService.recordMovement(product.getId(), -stockDifference,
+                InventoryMovement.MovementType.ADJUSTMENT, "order:" + orderId + ":item:" + orderItemId);
 
         // Recalculate total amount
         BigDecimal totalAmount = order.getOrderItems().stream()
@@ -150,7 +334,10 @@ public class OrderServiceImpl implements OrderService {
         order.setTotalAmount(totalAmount);
 
         Order updatedOrder = orderRepository.save(order);
-        return convertToDTO(updatedOrder);
+        OrderDTO updatedDTO = convertToDTO(updatedOrder);
+        eventPublisher.publishEvent(new OrderChangedEvent(updatedDTO.getId(), updatedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.ORDER, orderId);
+        return updatedDTO;
     }
 
     @Override
@@ -181,6 +368,34 @@ public class OrderServiceImpl implements OrderService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> getOrderHistory(Long userId, String cursor, int size, boolean summary) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findHistoryPage(userId, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            orders = orderRepository.findHistoryPageBefore(userId,
+                    LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit);
+        }
+
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders = orders.subList(0, pageSize);
+        }
+
+        List<OrderDTO> items = orders.stream()
+                .map(order -> summary ? convertToSummaryDTO(order) : convertToDTO(order))
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(orders.get(orders.size() - 1)) : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
     @Override
     public List<OrderDTO> searchOrders(String keyword) {
         return orderRepository.searchOrders(keyword).stream()
@@ -189,14 +404,175 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> searchOrders(String keyword, String cursor, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new BusinessException("Keyword is required");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        long beforeId = parseIdCursor(cursor);
+
+        List<Order> matches = new ArrayList<>();
+        if (keyword.trim().length() < 3 || !orderSearchService.isReady()) {
+            // Too short for trigrams, or the index is still loading
+            matches = orderRepository.searchOrdersBefore(keyword.trim(), beforeId, PageRequest.of(0, pageSize + 1));
+        } else {
+            while (matches.size() <= pageSize) {
+                long[] candidates = orderSearchService.findCandidates(keyword, beforeId, pageSize + 1);
+                if (candidates.length == 0) {
+                    break;
+                }
+                List<Long> ids = new ArrayList<>(candidates.length);
+                for (long candidate : candidates) {
+                    ids.add(candidate);
+                }
+                Map<Long, Order> loaded = orderRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Order::getId, Function.identity()));
+                for (Long id : ids) {
+                    Order order = loaded.get(id);
+                    if (order != null && orderSearchService.matches(order, keyword)) {
+                        matches.add(order);
+                        if (matches.size() > pageSize) {
+                            break;
+                        }
+                    }
+                }
+                beforeId = candidates[candidates.length - 1];
+            }
+        }
+
+        boolean hasMore = matches.size() > pageSize;
+        if (hasMore) {
+            matches = matches.subList(0, pageSize);
+        }
+        List<OrderDTO> items = matches.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? String.valueOf(matches.get(matches.size() - 1).getId()) : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    @Override
+    @RetryOnConflict
     public void deleteOrder(Long id) {
         if (!orderRepository.existsById(id)) {
             throw new ResourceNotFoundException("Order not found with id: " + id);
         }
         orderRepository.deleteById(id);
+        eventPublisher.publishEvent(new OrderChangedEvent(id, null));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.ORDER, id);
+    }
+
+    private String encodeCursor(Order order) {
+        String position = order.getCreatedAt() + "|" + order.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new BusinessException("Invalid cursor");
+            }
+            LocalDateTime.parse(position[0]);
+            Long.valueOf(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+
+    private void restockCancelledOrder(Order order) {
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            stockService.increaseStock(product, item.getQuantity());
+            inventoryLedgerService.recordMovement(product.getId(), item.getQuantity(),
+                    InventoryMovement.MovementType.CANCELLATION_RESTOCK, "order:" + order.getId());
+        }
+    }
+
+    // Returns the ids of the products that got stock back
+    private List<Long> restockCancelledOrders(Object[] orderIds, String in, Timestamp now) {
+        List<Long> productIds = jdbcTemplate.queryForList(String.format(RESTOCKED_PRODUCTS_SQL, in), Long.class, orderIds);
+        jdbcTemplate.update(String.format(RESTOCK_SQL, in), orderIds);
+        List<Object[]> sharded = jdbcTemplate.query(String.format(SHARDED_RESTOCK_SQL, in),
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getInt(2)}, orderIds);
+        for (Object[] row : sharded) {
+            Product product = productRepository.findById((Long) row[0])
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + row[0]));
+            stockService.increaseStock(product, (Integer) row[1]);
+        }
+        Object[] movementArgs = new Object[orderIds.length + 1];
+        movementArgs[0] = now;
+        System.arraycopy(orderIds, 0, movementArgs, 1, orderIds.length);
+        jdbcTemplate.update(String.format(RESTOCK_MOVEMENTS_SQL, in), movementArgs);
+        return productIds;
+    }
+
+    // The restock bypasses the entities, so product caches here and on the other nodes are told
+    // directly; this node's listeners run after commit so they cannot reload the old stock
+    private void invalidateProductsAfterCommit(Set<Long> productIds) {
+        List<CacheInvalidatedEvent> events = new ArrayList<>();
+        if (productIds.size() > MAX_PRODUCT_INVALIDATIONS) {
+            cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, null);
+            events.add(new CacheInvalidatedEvent(CacheInvalidation.EntityType.PRODUCT, null));
+        } else {
+            for (Long productId : productIds) {
+                cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, productId);
+                events.add(new CacheInvalidatedEvent(CacheInvalidation.EntityType.PRODUCT, productId));
+            }
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            events.forEach(eventPublisher::publishEvent);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                events.forEach(eventPublisher::publishEvent);
+            }
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    // Moving an order out of CANCELLED takes its stock back again
+    private void reserveReopenedOrder(Order order) {
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            stockService.decreaseStock(product, item.getQuantity());
+            inventoryLedgerService.recordMovement(product.getId(), -item.getQuantity(),
+                    InventoryMovement.MovementType.SALE, "order:" + order.getId() + ":reopened");
+        }
+    }
+
+    private long parseIdCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+
+    private String nextOrderNumber() {
+        return "ORD" + lastOrderNumber.accumulateAndGet(System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now));
     }
 
     private OrderDTO convertToDTO(Order order) {
+        OrderDTO dto = convertToSummaryDTO(order);
+        dto.setOrderItems(order.getOrderItems().stream()
+                .map(this::convertOrderItemToDTO)
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    // Header fields only; does not initialise the lazy orderItems collection
+    private OrderDTO convertToSummaryDTO(Order order) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setOrderNumber(order.getOrderNumber());
@@ -207,13 +583,9 @@ public class OrderServiceImpl implements OrderService {
         dto.setStatus(order.getStatus());
         dto.setShippingAddress(order.getShippingAddress());
         dto.setPhoneNumber(order.getPhoneNumber());
+        dto.setVersion(order.getVersion());
         dto.setCreatedAt(order.getCreatedAt());
         dto.setUpdatedAt(order.getUpdatedAt());
-
-        dto.setOrderItems(order.getOrderItems().stream()
-                .map(this::convertOrderItemToDTO)
-                .collect(Collectors.toList()));
-
         return dto;
     }
 
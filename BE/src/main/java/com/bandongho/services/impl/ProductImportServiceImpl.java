@@ -0,0 +1,528 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.dtos.ImportRowErrorDTO;
+import com.bandongho.dtos.ProductDTO;
+import com.bandongho.dtos.ProductImportReportDTO;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.entities.Category;
+import com.bandongho.entities.InventoryMovement;
+import com.bandongho.entities.Product;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.ResourceNotFoundException;
+import com.bandongho.repositories.CategoryRepository;
+import com.bandongho.repositories.ProductRepository;
+import com.bandongho.services.CacheInvalidationService;
+import com.bandongho.services.InventoryLedgerService;
+import com.bandongho.services.ProductImportService;
+import com.bandongho.services.StockService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Streaming product import, upserting by SKU. The file is read one record at a time in chunks of
+// batch-size records; a chunk is parsed and validated on the import pool while the previous chunk
+// is written, so memory stays at about two chunks whatever the file size. Each chunk is written
+// with JDBC batches in one transaction. If that transaction fails, the chunk's rows are retried one
+// by one so the report names only the rows that are actually bad.
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final String LOCK_SQL = "SELECT id, sku, stock, stock_shards FROM products WHERE sku IN (%s) FOR UPDATE";
+    private static final String INSERT_SQL = "INSERT INTO products (sku, name, description, price, stock, image_url, " +
+            "rating, reviews, stock_shards, category_id, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, 0, ?, ?)";
+    // Optional columns left out of the file keep their current value; sharded stock is set through StockService.
+    // MariaDB assigns left to right, so the srcset column still compares against the old image_url.
+    private static final String UPDATE_SQL = "UPDATE products SET name = ?, description = COALESCE(?, description), " +
+            "price = ?, stock = CASE WHEN stock_shards = 0 THEN ? ELSE stock END, " +
+            "image_srcset = IF(COALESCE(?, image_url) <=> image_url, image_srcset, NULL), " +
+            "image_url = COALESCE(?, image_url), " +
+            "rating = COALESCE(?, rating), reviews = COALESCE(?, reviews), category_id = ?, " +
+            "version = version + 1, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.validation-threads:4}")
+    private int validationThreads;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private ExecutorService importPool;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        importPool = Executors.newFixedThreadPool(Math.max(1, validationThreads), runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importPool.shutdownNow();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductImportReportDTO importProducts(InputStream input, Format format) {
+        long startedAt = System.currentTimeMillis();
+        ImportRun run = new ImportRun(categoryRepository.findAll());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Function<String, ProductDTO> parser = format == Format.CSV ? csvParser(reader.readLine()) : this::parseJson;
+
+            List<ImportRow> previous = null;
+            List<ImportRow> chunk;
+            while (!(chunk = readChunk(reader, format, run)).isEmpty()) {
+                CompletableFuture<Void> parsed = parseAsync(chunk, parser, run);
+                if (previous != null) {
+                    write(previous, run);
+                }
+                await(parsed);
+                previous = chunk;
+            }
+            if (previous != null) {
+                write(previous, run);
+            }
+        } catch (IOException e) {
+            throw new BusinessException("Could not read import file: " + e.getMessage());
+        } finally {
+            if (run.inserted + run.updated > 0) {
+                // Too many rows to invalidate one by one; every product cache starts over
+                eventPublisher.publishEvent(new CacheInvalidatedEvent(CacheInvalidation.EntityType.PRODUCT, null));
+                cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, null);
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - startedAt;
+        meterRegistry.counter("bandongho.import.rows", "result", "inserted").increment(run.inserted);
+        meterRegistry.counter("bandongho.import.rows", "result", "updated").increment(run.updated);
+        meterRegistry.counter("bandongho.import.rows", "result", "failed").increment(run.failed);
+        System.out.println("Product import: " + run.rowCount + " rows (" + run.inserted + " inserted, " + run.updated
+                + " updated, " + run.failed + " failed) in " + durationMs + " ms");
+        return new ProductImportReportDTO(run.rowCount, run.inserted, run.updated, run.failed, run.errors,
+                durationMs, LocalDateTime.now());
+    }
+
+    private List<ImportRow> readChunk(BufferedReader reader, Format format, ImportRun run) throws IOException {
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        String line;
+        while (chunk.size() < batchSize && (line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV) {
+                // A quoted field may contain line breaks
+                StringBuilder record = new StringBuilder(line);
+                while (countQuotes(record) % 2 != 0 && (line = reader.readLine()) != null) {
+                    record.append('\n').append(line);
+                }
+                line = record.toString();
+            }
+            chunk.add(new ImportRow(++run.rowCount, line));
+        }
+        return chunk;
+    }
+
+    private CompletableFuture<Void> parseAsync(List<ImportRow> chunk, Function<String, ProductDTO> parser, ImportRun run) {
+        int sliceSize = Math.max(1, (chunk.size() + validationThreads - 1) / Math.max(1, validationThreads));
+        List<CompletableFuture<Void>> slices = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<ImportRow> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            slices.add(CompletableFuture.runAsync(() -> slice.forEach(row -> parse(row, parser, run)), importPool));
+        }
+        return CompletableFuture.allOf(slices.toArray(new CompletableFuture[0]));
+    }
+
+    private void parse(ImportRow row, Function<String, ProductDTO> parser, ImportRun run) {
+        try {
+            ProductDTO product = parser.apply(row.raw);
+            row.sku = product.getSku() != null ? product.getSku().trim() : null;
+            product.setSku(row.sku);
+            if (row.sku == null || row.sku.isEmpty()) {
+                row.error = "SKU is required";
+                return;
+            }
+            if (product.getCategoryId() == null && product.getCategoryName() != null) {
+                product.setCategoryId(run.categoryIdsByName.get(product.getCategoryName().trim().toLowerCase(Locale.ROOT)));
+                if (product.getCategoryId() == null) {
+                    row.error = "Category not found: " + product.getCategoryName();
+                    return;
+                }
+            } else if (product.getCategoryId() != null && !run.categoryIds.contains(product.getCategoryId())) {
+                row.error = "Category not found with id: " + product.getCategoryId();
+                return;
+            }
+            Set<ConstraintViolation<ProductDTO>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                row.error = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                return;
+            }
+            row.product = product;
+        } catch (RuntimeException e) {
+            row.error = e.getMessage();
+        } finally {
+            row.raw = null;
+        }
+    }
+
+    private void write(List<ImportRow> rows, ImportRun run) {
+        // A SKU repeated within the chunk is written after the batch so the later row wins
+        List<ImportRow> batch = new ArrayList<>();
+        List<ImportRow> repeats = new ArrayList<>();
+        Set<String> skus = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.error != null) {
+                run.fail(row, row.error, maxReportedErrors);
+            } else if (skus.add(row.sku)) {
+                batch.add(row);
+            } else {
+                repeats.add(row);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            int[] written = transactionTemplate.execute(status -> upsert(batch));
+            run.inserted += written[0];
+            run.updated += written[1];
+        } catch (RuntimeException e) {
+            meterRegistry.counter("bandongho.import.batch-fallbacks").increment();
+            for (ImportRow row : batch) {
+                writeOne(row, run);
+            }
+        }
+        for (ImportRow row : repeats) {
+            writeOne(row, run);
+        }
+    }
+
+    private void writeOne(ImportRow row, ImportRun run) {
+        try {
+            int[] written = transactionTemplate.execute(status -> upsert(List.of(row)));
+            run.inserted += written[0];
+            run.updated += written[1];
+        } catch (RuntimeException e) {
+            run.fail(row, NestedExceptionUtils.getMostSpecificCause(e).getMessage(), maxReportedErrors);
+        }
+    }
+
+    // Returns {inserted, updated}
+    private int[] upsert(List<ImportRow> rows) {
+        Map<String, ExistingProduct> existing = lockBySku(rows.stream().map(row -> row.sku).toList());
+        List<ImportRow> inserts = new ArrayList<>();
+        List<ImportRow> updates = new ArrayList<>();
+        for (ImportRow row : rows) {
+            (existing.containsKey(row.sku) ? updates : inserts).add(row);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<Long, Integer> stockDeltas = new LinkedHashMap<>();
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, row) -> {
+                ProductDTO product = row.product;
+                ps.setString(1, row.sku);
+                ps.setString(2, product.getName());
+                ps.setString(3, product.getDescription());
+                ps.setBigDecimal(4, product.getPrice());
+                ps.setInt(5, product.getStock());
+                ps.setString(6, product.getImageUrl());
+                ps.setDouble(7, product.getRating() != null ? product.getRating() : 0.0);
+                ps.setInt(8, product.getReviews() != null ? product.getReviews() : 0);
+                ps.setLong(9, product.getCategoryId());
+                ps.setTimestamp(10, now);
+                ps.setTimestamp(11, now);
+            });
+            Map<String, ExistingProduct> created = lockBySku(inserts.stream().map(row -> row.sku).toList());
+            for (ImportRow row : inserts) {
+                stockDeltas.put(created.get(row.sku).id, row.product.getStock());
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, row) -> {
+                ProductDTO product = row.product;
+                ps.setString(1, product.getName());
+                ps.setString(2, product.getDescription());
+                ps.setBigDecimal(3, product.getPrice());
+                ps.setInt(4, product.getStock());
+                ps.setString(5, product.getImageUrl());
+                ps.setString(6, product.getImageUrl());
+                ps.setObject(7, product.getRating(), Types.DOUBLE);
+                ps.setObject(8, product.getReviews(), Types.INTEGER);
+                ps.setLong(9, product.getCategoryId());
+                ps.setTimestamp(10, now);
+                ps.setLong(11, existing.get(row.sku).id);
+            });
+            for (ImportRow row : updates) {
+                ExistingProduct current = existing.get(row.sku);
+                int stock = row.product.getStock();
+                int delta;
+                if (current.stockShards > 0) {
+                    Product product = productRepository.findById(current.id)
+                            .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + current.id));
+                    delta = stock - stockService.getStock(product);
+                    stockService.setStock(product, stock);
+                } else {
+                    delta = stock - current.stock;
+                }
+                stockDeltas.put(current.id, delta);
+            }
+        }
+
+        inventoryLedgerService.recordMovements(stockDeltas, InventoryMovement.MovementType.ADMIN_SET, "product import");
+        return new int[]{inserts.size(), updates.size()};
+    }
+
+    private Map<String, ExistingProduct> lockBySku(List<String> skus) {
+        Map<String, ExistingProduct> products = new HashMap<>();
+        String sql = String.format(LOCK_SQL, String.join(",", Collections.nCopies(skus.size(), "?")));
+        jdbcTemplate.query(sql, rs -> {
+            products.put(rs.getString(2), new ExistingProduct(rs.getLong(1), rs.getInt(3), rs.getInt(4)));
+        }, skus.toArray());
+        return products;
+    }
+
+    private ProductDTO parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ProductDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Function<String, ProductDTO> csvParser(String headerLine) {
+        if (headerLine == null) {
+            throw new BusinessException("Import file is empty");
+        }
+        List<String> header = parseCsvLine(headerLine);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).replace("_", "").replace(" ", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("sku")) {
+            throw new BusinessException("CSV header must contain a sku column");
+        }
+
+        return line -> {
+            List<String> fields = parseCsvLine(line);
+            ProductDTO product = new ProductDTO();
+            product.setSku(field(fields, columns, "sku"));
+            product.setName(field(fields, columns, "name"));
+            product.setDescription(field(fields, columns, "description"));
+            product.setPrice(parse(field(fields, columns, "price"), "price", BigDecimal::new));
+            product.setStock(parse(field(fields, columns, "stock"), "stock", Integer::valueOf));
+            product.setImageUrl(field(fields, columns, "imageurl"));
+            product.setRating(parse(field(fields, columns, "rating"), "rating", Double::valueOf));
+            product.setReviews(parse(field(fields, columns, "reviews"), "reviews", Integer::valueOf));
+            product.setCategoryId(parse(field(fields, columns, "categoryid"), "category id", Long::valueOf));
+            String categoryName = field(fields, columns, "categoryname");
+            product.setCategoryName(categoryName != null ? categoryName : field(fields, columns, "category"));
+            return product;
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T parse(String value, String name, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    // RFC 4180 fields: comma separated, optionally quoted, "" inside quotes is a literal quote
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class ImportRow {
+        private final long rowNumber;
+        private String raw;
+        private String sku;
+        private ProductDTO product;
+        private String error;
+
+        private ImportRow(long rowNumber, String raw) {
+            this.rowNumber = rowNumber;
+            this.raw = raw;
+        }
+    }
+
+    private static final class ExistingProduct {
+        private final long id;
+        private final int stock;
+        private final int stockShards;
+
+        private ExistingProduct(long id, int stock, int stockShards) {
+            this.id = id;
+            this.stock = stock;
+            this.stockShards = stockShards;
+        }
+    }
+
+    // Counters are only touched by the request thread; the pool only fills in ImportRow fields
+    private static final class ImportRun {
+        private final Set<Long> categoryIds = new HashSet<>();
+        private final Map<String, Long> categoryIdsByName = new HashMap<>();
+        private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+        private long rowCount;
+        private long inserted;
+        private long updated;
+        private long failed;
+
+        private ImportRun(List<Category> categories) {
+            for (Category category : categories) {
+                categoryIds.add(category.getId());
+                categoryIdsByName.put(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+            }
+        }
+
+        private void fail(ImportRow row, String message, int maxReportedErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowErrorDTO(row.rowNumber, row.sku, message));
+            }
+        }
+    }
+}
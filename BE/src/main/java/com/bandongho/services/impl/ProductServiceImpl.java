@@ -1,36 +1,157 @@
 package com.bandongho.services.impl;
 
+import com.bandongho.aspects.RetryOnConflict;
+import com.bandongho.dtos.BulkProductUpdateRequest;
+import com.bandongho.dtos.BulkProductUpdateResultDTO;
+import com.bandongho.dtos.OrderItemDTO;
+import com.bandongho.dtos.ProductChangeDTO;
 import com.bandongho.dtos.ProductDTO;
 import com.bandongho.entities.Category;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.entities.InventoryMovement;
 import com.bandongho.entities.Product;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.events.CategoryChangedEvent;
+import com.bandongho.events.OrderPlacedEvent;
+import com.bandongho.events.ProductChangedEvent;
 import com.bandongho.exceptions.ResourceNotFoundException;
 import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.StaleVersionException;
 import com.bandongho.repositories.CategoryRepository;
 import com.bandongho.repositories.ProductRepository;
+import com.bandongho.services.CacheInvalidationService;
+import com.bandongho.services.InventoryLedgerService;
 import com.bandongho.services.ProductService;
+import com.bandongho.services.StockService;
+import com.bandongho.utils.SingleFlightCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+// Product reads by id, the full list and per-category lists go through single-flight caches, so a
+// burst of misses after a change or a deploy costs one query per key. Stock is part of the cached
+// DTO and only as fresh as the TTL between orders; checkout always re-reads it.
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
+    private static final String ALL_PRODUCTS = "all";
+    private static final int LIST_LOAD_CHUNK = 1000;
+    private static final String REPRICE_CATEGORY_SQL = "UPDATE products " +
+            "SET price = GREATEST(0.01, ROUND(price * (100 + ?) / 100, 2)), version = version + 1, updated_at = ? " +
+            "WHERE category_id = ?";
+    private static final String MAX_CATEGORY_PRICE_SQL = "SELECT MAX(price) FROM products WHERE category_id = ?";
+    // Largest value of the DECIMAL(10,2) price column
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final String LOCK_PRODUCTS_SQL = "SELECT id, stock, stock_shards FROM products WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    // Sharded stock is left alone here and set through StockService
+    private static final String BULK_UPDATE_SQL = "UPDATE products SET price = COALESCE(?, price), " +
+            "stock = IF(stock_shards = 0, COALESCE(?, stock), stock), version = version + 1, updated_at = ? WHERE id = ?";
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.catalog.cache.ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    @Value("${app.catalog.cache.refresh-after-ms:20000}")
+    private long cacheRefreshAfterMs;
+
+    @Value("${app.catalog.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${app.products.bulk-update.batch-size:500}")
+    private int bulkUpdateBatchSize;
+
+    @Value("${app.products.bulk-update.max-changes:20000}")
+    private int bulkUpdateMaxChanges;
+
+    private SingleFlightCache<Long, ProductDTO> productCache;
+    // Lists hold product ids only and are filled from productCache, so an order or edit reloads the
+    // products it touched rather than every list they appear in
+    private SingleFlightCache<String, List<Long>> productListCache;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void initCaches() {
+        productCache = new SingleFlightCache<>("products", cacheTtlMs, cacheRefreshAfterMs, cacheMaxEntries, meterRegistry);
+        productListCache = new SingleFlightCache<>("product-lists", cacheTtlMs, cacheRefreshAfterMs, cacheMaxEntries, meterRegistry);
+        // Cached reads run without a transaction so hits never take a connection; loads open their own
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void stopCaches() {
+        productCache.stop();
+        productListCache.stop();
+    }
+
     @Override
     public ProductDTO createProduct(ProductDTO productDTO) {
         Category category = categoryRepository.findById(productDTO.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + productDTO.getCategoryId()));
+        if (productDTO.getSku() != null && productRepository.existsBySku(productDTO.getSku())) {
+            throw new BusinessException("Product with SKU " + productDTO.getSku() + " already exists");
+        }
 
         Product product = new Product();
+        product.setSku(productDTO.getSku());
         product.setName(productDTO.getName());
         product.setDescription(productDTO.getDescription());
         product.setPrice(productDTO.getPrice());
@@ -41,14 +162,30 @@ public class ProductServiceImpl implements ProductService {
         product.setCategory(category);
 
         Product savedProduct = productRepository.save(product);
-        return convertToDTO(savedProduct);
+        inventoryLedgerService.recordMovement(savedProduct.getId(), savedProduct.getStock(),
+                InventoryMovement.MovementType.ADMIN_SET, "product created");
+        ProductDTO savedDTO = convertToDTO(savedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedDTO.getId(), savedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, savedDTO.getId());
+        return savedDTO;
     }
 
+    // Not retried on conflict: the admin's values (stock in particular) are absolute, so re-applying them
+    // over a newer row would silently drop the other write. A stale or lost race is a 409 instead.
     @Override
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        if (productDTO.getVersion() != null && !productDTO.getVersion().equals(product.getVersion())) {
+            throw new StaleVersionException("Product " + id + " was modified by another request. Reload it and try again.");
+        }
 
+        if (productDTO.getSku() != null && !productDTO.getSku().equals(product.getSku())) {
+            if (productRepository.existsBySkuAndIdNot(productDTO.getSku(), id)) {
+                throw new BusinessException("Product with SKU " + productDTO.getSku() + " already exists");
+            }
+            product.setSku(productDTO.getSku());
+        }
         if (productDTO.getName() != null) {
             product.setName(productDTO.getName());
         }
@@ -59,10 +196,13 @@ public class ProductServiceImpl implements ProductService {
             product.setPrice(productDTO.getPrice());
         }
         if (productDTO.getStock() != null) {
-            product.setStock(productDTO.getStock());
+            inventoryLedgerService.recordMovement(id, productDTO.getStock() - stockService.getStock(product),
+                    InventoryMovement.MovementType.ADMIN_SET, "admin update");
+            stockService.setStock(product, productDTO.getStock());
         }
-        if (productDTO.getImageUrl() != null) {
+        if (productDTO.getImageUrl() != null && !productDTO.getImageUrl().equals(product.getImageUrl())) {
             product.setImageUrl(productDTO.getImageUrl());
+            product.setImageSrcset(null);
         }
         if (productDTO.getRating() != null) {
             product.setRating(productDTO.getRating());
@@ -77,28 +217,126 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
-        return convertToDTO(updatedProduct);
+        ProductDTO updatedDTO = convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, updatedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, id);
+        return updatedDTO;
     }
 
     @Override
-    public ProductDTO getProductById(Long id) {
+    @RetryOnConflict
+    public ProductDTO configureStockShards(Long id, int shards) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return convertToDTO(product);
+
+        stockService.configureShards(product, shards);
+
+        ProductDTO updatedDTO = convertToDTO(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, updatedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, id);
+        return updatedDTO;
     }
 
     @Override
+    @RetryOnConflict
+    public ProductDTO replaceImage(Long id, String imageUrl) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+
+        product.setImageUrl(imageUrl);
+        product.setImageSrcset(null);
+
+        Product updatedProduct = productRepository.save(product);
+        ProductDTO updatedDTO = convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, updatedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, id);
+        return updatedDTO;
+    }
+
+    // Called by the image worker; dropped if the product got another image while the variants were made
+    @Override
+    @RetryOnConflict
+    public void attachImageVariants(Long id, String imageUrl, String srcset) {
+        Product product = productRepository.findById(id).orElse(null);
+        if (product == null || !imageUrl.equals(product.getImageUrl())) {
+            return;
+        }
+
+        product.setImageSrcset(srcset);
+
+        Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, convertToDTO(updatedProduct)));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, id);
+    }
+
+    // Set-based: the category rule is one UPDATE, explicit changes are JDBC batches of bulk-update.batch-size
+    // rows, all in this one transaction. Caches are flushed once after commit instead of once per product.
+    @Override
+    public BulkProductUpdateResultDTO bulkUpdate(BulkProductUpdateRequest request) {
+        long startedAt = System.currentTimeMillis();
+        List<ProductChangeDTO> changes = request.getChanges() != null ? request.getChanges() : List.of();
+        boolean hasRule = request.getCategoryId() != null || request.getPricePercent() != null;
+        if (!hasRule && changes.isEmpty()) {
+            throw new BusinessException("Nothing to update: send changes or a categoryId with a pricePercent");
+        }
+        if (changes.size() > bulkUpdateMaxChanges) {
+            throw new BusinessException("At most " + bulkUpdateMaxChanges + " changes per request");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int repriced = 0;
+        if (hasRule) {
+            if (request.getCategoryId() == null || request.getPricePercent() == null) {
+                throw new BusinessException("A price rule needs both categoryId and pricePercent");
+            }
+            if (!categoryRepository.existsById(request.getCategoryId())) {
+                throw new ResourceNotFoundException("Category not found with id: " + request.getCategoryId());
+            }
+            BigDecimal highest = jdbcTemplate.queryForObject(MAX_CATEGORY_PRICE_SQL, BigDecimal.class, request.getCategoryId());
+            if (highest != null && highest.multiply(BigDecimal.valueOf(100).add(request.getPricePercent()))
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP).compareTo(MAX_PRICE) > 0) {
+                throw new BusinessException("Repricing by " + request.getPricePercent() + "% would take prices in this category above " + MAX_PRICE);
+            }
+            repriced = jdbcTemplate.update(REPRICE_CATEGORY_SQL, request.getPricePercent(), now, request.getCategoryId());
+        }
+
+        // Locking in id order keeps concurrent bulk updates from deadlocking each other
+        List<ProductChangeDTO> sorted = changes.stream()
+                .sorted(Comparator.comparing(ProductChangeDTO::getId))
+                .toList();
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getId().equals(sorted.get(i - 1).getId())) {
+                throw new BusinessException("Product " + sorted.get(i).getId() + " appears more than once");
+            }
+        }
+        for (int from = 0; from < sorted.size(); from += bulkUpdateBatchSize) {
+            applyChanges(sorted.subList(from, Math.min(from + bulkUpdateBatchSize, sorted.size())), now);
+        }
+
+        if (repriced + sorted.size() > 0) {
+            invalidateAllAfterCommit();
+        }
+        return new BulkProductUpdateResultDTO(repriced, sorted.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductDTO getProductById(Long id) {
+        return productCache.get(id, this::loadProduct);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return resolveProducts(productListCache.get(ALL_PRODUCTS, key -> readOnlyTransaction.execute(status ->
+                List.copyOf(productRepository.findAllIds()))));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProductDTO> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategory(categoryId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return resolveProducts(productListCache.get("category:" + categoryId, key -> readOnlyTransaction.execute(status ->
+                List.copyOf(productRepository.findIdsByCategory(categoryId)))));
     }
 
     @Override
@@ -116,6 +354,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @RetryOnConflict
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
@@ -125,6 +364,8 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, null));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, id);
     }
 
     @Override
@@ -134,18 +375,154 @@ public class ProductServiceImpl implements ProductService {
         return product.getOrderItems() != null && !product.getOrderItems().isEmpty();
     }
 
+    // Runs before the other listeners of these events, some of which read products back through this service
+    // A change may add, remove or move the product between lists; reloading lists only reloads ids
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        productCache.invalidate(event.getProductId());
+        productListCache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        // Stock changed, list membership did not
+        for (OrderItemDTO item : event.getOrder().getOrderItems()) {
+            productCache.invalidate(item.getProductId());
+        }
+    }
+
+    // Product DTOs carry the category name
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        productCache.invalidateAll();
+        productListCache.invalidateAll();
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.getEntityType() == CacheInvalidation.EntityType.PRODUCT && event.getEntityId() != null) {
+            productCache.invalidate(event.getEntityId());
+            productListCache.invalidateAll();
+        } else if (event.getEntityType() == CacheInvalidation.EntityType.PRODUCT
+                || event.getEntityType() == CacheInvalidation.EntityType.CATEGORY) {
+            productCache.invalidateAll();
+            productListCache.invalidateAll();
+        }
+    }
+
+    private ProductDTO loadProduct(Long id) {
+        return readOnlyTransaction.execute(status -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+            return convertToDTO(product);
+        });
+    }
+
+    // Cached products are served as they are; the rest are loaded together, LIST_LOAD_CHUNK at a
+    // time, and go through productCache so they are shared with concurrent readers
+    private List<ProductDTO> resolveProducts(List<Long> ids) {
+        List<Long> missing = ids.stream()
+                .filter(id -> productCache.peek(id) == null)
+                .collect(Collectors.toList());
+        Map<Long, ProductDTO> loaded = new HashMap<>();
+        for (int from = 0; from < missing.size(); from += LIST_LOAD_CHUNK) {
+            List<Long> chunk = missing.subList(from, Math.min(from + LIST_LOAD_CHUNK, missing.size()));
+            readOnlyTransaction.executeWithoutResult(status -> productRepository.findAllById(chunk)
+                    .forEach(product -> loaded.put(product.getId(), convertToDTO(product))));
+        }
+        Set<Long> deleted = new HashSet<>(missing);
+        deleted.removeAll(loaded.keySet());
+
+        List<ProductDTO> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            // Deleted since the list was loaded; the delete also invalidates the lists
+            if (deleted.contains(id)) {
+                continue;
+            }
+            products.add(productCache.get(id, key -> loaded.containsKey(key) ? loaded.get(key) : loadProduct(key)));
+        }
+        return Collections.unmodifiableList(products);
+    }
+
+    private void applyChanges(List<ProductChangeDTO> changes, Timestamp now) {
+        Map<Long, int[]> current = new HashMap<>();
+        String lockSql = String.format(LOCK_PRODUCTS_SQL, String.join(",", Collections.nCopies(changes.size(), "?")));
+        jdbcTemplate.query(lockSql, rs -> {
+            current.put(rs.getLong(1), new int[]{rs.getInt(2), rs.getInt(3)});
+        }, changes.stream().map(ProductChangeDTO::getId).toArray());
+        List<Long> missing = changes.stream()
+                .map(ProductChangeDTO::getId)
+                .filter(id -> !current.containsKey(id))
+                .limit(20)
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Products not found with ids: " + missing);
+        }
+
+        jdbcTemplate.batchUpdate(BULK_UPDATE_SQL, changes, changes.size(), (ps, change) -> {
+            ps.setBigDecimal(1, change.getPrice());
+            ps.setObject(2, change.getStock(), Types.INTEGER);
+            ps.setTimestamp(3, now);
+            ps.setLong(4, change.getId());
+        });
+
+        Map<Long, Integer> stockDeltas = new LinkedHashMap<>();
+        for (ProductChangeDTO change : changes) {
+            if (change.getStock() == null) {
+                continue;
+            }
+            int[] stockAndShards = current.get(change.getId());
+            if (stockAndShards[1] > 0) {
+                Product product = productRepository.findById(change.getId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + change.getId()));
+                stockDeltas.put(change.getId(), change.getStock() - stockService.getStock(product));
+                stockService.setStock(product, change.getStock());
+            } else {
+                stockDeltas.put(change.getId(), change.getStock() - stockAndShards[0]);
+            }
+        }
+        inventoryLedgerService.recordMovements(stockDeltas, InventoryMovement.MovementType.ADMIN_SET, "bulk update");
+    }
+
+    private void invalidateAllAfterCommit() {
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.PRODUCT, null);
+        CacheInvalidatedEvent event = new CacheInvalidatedEvent(CacheInvalidation.EntityType.PRODUCT, null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(event);
+            }
+        });
+    }
+
     private ProductDTO convertToDTO(Product product) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
+        dto.setSku(product.getSku());
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
-        dto.setStock(product.getStock());
+        dto.setStock(stockService.getStock(product));
+        dto.setStockShards(product.getStockShards());
         dto.setImageUrl(product.getImageUrl());
+        dto.setSrcset(product.getImageSrcset());
         dto.setRating(product.getRating());
         dto.setReviews(product.getReviews());
         dto.setCategoryId(product.getCategory().getId());
         dto.setCategoryName(product.getCategory().getName());
+        dto.setVersion(product.getVersion());
         dto.setCreatedAt(product.getCreatedAt());
         dto.setUpdatedAt(product.getUpdatedAt());
         return dto;
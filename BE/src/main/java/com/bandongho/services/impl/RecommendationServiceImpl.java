@@ -0,0 +1,304 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.dtos.OrderItemDTO;
+import com.bandongho.dtos.ProductDTO;
+import com.bandongho.entities.CacheInvalidation;
+import com.bandongho.events.CacheInvalidatedEvent;
+import com.bandongho.events.OrderPlacedEvent;
+import com.bandongho.events.ProductChangedEvent;
+import com.bandongho.exceptions.ResourceNotFoundException;
+import com.bandongho.repositories.OrderItemRepository;
+import com.bandongho.repositories.OrderRepository;
+import com.bandongho.services.ProductService;
+import com.bandongho.services.RecommendationService;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// "Frequently bought together": pair counts come from a parallel scan of order history at startup
+// and are then kept current from committed orders, so lookups never touch the database.
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Value("${app.recommendations.top-k:10}")
+    private int topK;
+
+    @Value("${app.recommendations.bootstrap-threads:4}")
+    private int bootstrapThreads;
+
+    @Value("${app.recommendations.bootstrap-chunk-size:5000}")
+    private int bootstrapChunkSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // productId -> (co-purchased productId -> number of orders containing both)
+    private final Long2ObjectOpenHashMap<Long2IntOpenHashMap> pairCounts = new Long2ObjectOpenHashMap<>();
+
+    // productId -> neighbour ids, best first, at most topK entries
+    private final Long2ObjectOpenHashMap<long[]> topNeighbors = new Long2ObjectOpenHashMap<>();
+
+    private final Long2ObjectOpenHashMap<ProductDTO> products = new Long2ObjectOpenHashMap<>();
+
+    // Orders up to this id are counted by the history scan; live events for them are ignored
+    private volatile long historyBound = Long.MAX_VALUE;
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(this::loadHistory, "recommendation-bootstrap");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public synchronized void loadHistory() {
+        if (ready) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+
+        for (ProductDTO product : productService.getAllProducts()) {
+            lock.writeLock().lock();
+            try {
+                products.putIfAbsent(product.getId().longValue(), product);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Long minOrderId = orderRepository.findMinId();
+        Long maxOrderId = orderRepository.findMaxId();
+        historyBound = maxOrderId != null ? maxOrderId : 0L;
+
+        Long2ObjectOpenHashMap<Long2IntOpenHashMap> history = new Long2ObjectOpenHashMap<>();
+        if (minOrderId != null) {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, bootstrapThreads));
+            try {
+                List<Future<Long2ObjectOpenHashMap<Long2IntOpenHashMap>>> chunks = new ArrayList<>();
+                for (long from = minOrderId; from <= maxOrderId; from += bootstrapChunkSize) {
+                    long chunkFrom = from;
+                    long chunkTo = Math.min(from + bootstrapChunkSize - 1, maxOrderId);
+                    chunks.add(pool.submit(() -> countChunk(chunkFrom, chunkTo)));
+                }
+                for (Future<Long2ObjectOpenHashMap<Long2IntOpenHashMap>> chunk : chunks) {
+                    mergeCounts(history, chunk.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.err.println("Error loading order history for recommendations: " + e.getCause().getMessage());
+                return;
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            mergeCounts(pairCounts, history);
+            for (long productId : history.keySet()) {
+                topNeighbors.put(productId, selectTopK(pairCounts.get(productId)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+
+        System.out.println("Recommendations loaded for " + history.size() + " products in "
+                + (System.currentTimeMillis() - startedAt) + " ms");
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public List<ProductDTO> getRelatedProducts(Long productId, int limit) {
+        List<ProductDTO> related = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long[] neighbors = topNeighbors.get(productId.longValue());
+            if (neighbors == null) {
+                return related;
+            }
+            for (long neighborId : neighbors) {
+                if (related.size() >= limit) {
+                    break;
+                }
+                ProductDTO product = products.get(neighborId);
+                if (product != null) {
+                    related.add(product);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return related;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.getOrder().getId() <= historyBound) {
+            return;
+        }
+        LongArrayList basket = new LongArrayList();
+        for (OrderItemDTO item : event.getOrder().getOrderItems()) {
+            if (!basket.contains(item.getProductId().longValue())) {
+                basket.add(item.getProductId().longValue());
+            }
+        }
+        if (basket.size() < 2) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            addBasket(pairCounts, basket);
+            for (long productId : basket) {
+                topNeighbors.put(productId, selectTopK(pairCounts.get(productId)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getProduct() == null) {
+                products.remove(event.getProductId().longValue());
+            } else {
+                products.put(event.getProductId().longValue(), event.getProduct());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A product was changed on another node: refresh the copy shown in recommendations
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.getEntityType() != CacheInvalidation.EntityType.PRODUCT) {
+            return;
+        }
+        if (event.getEntityId() == null) {
+            List<ProductDTO> all = productService.getAllProducts();
+            lock.writeLock().lock();
+            try {
+                products.clear();
+                for (ProductDTO product : all) {
+                    products.put(product.getId().longValue(), product);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        ProductDTO product;
+        try {
+            product = productService.getProductById(event.getEntityId());
+        } catch (ResourceNotFoundException e) {
+            product = null;
+        }
+        onProductChanged(new ProductChangedEvent(event.getEntityId(), product));
+    }
+
+    private Long2ObjectOpenHashMap<Long2IntOpenHashMap> countChunk(long fromOrderId, long toOrderId) {
+        Long2ObjectOpenHashMap<Long2IntOpenHashMap> counts = new Long2ObjectOpenHashMap<>();
+        LongArrayList basket = new LongArrayList();
+        long currentOrderId = -1;
+
+        for (Object[] row : orderItemRepository.findOrderProductPairs(fromOrderId, toOrderId)) {
+            long orderId = (Long) row[0];
+            long productId = (Long) row[1];
+            if (orderId != currentOrderId) {
+                addBasket(counts, basket);
+                basket.clear();
+                currentOrderId = orderId;
+            }
+            if (!basket.contains(productId)) {
+                basket.add(productId);
+            }
+        }
+        addBasket(counts, basket);
+        return counts;
+    }
+
+    private static void addBasket(Long2ObjectOpenHashMap<Long2IntOpenHashMap> counts, LongArrayList basket) {
+        for (int i = 0; i < basket.size(); i++) {
+            Long2IntOpenHashMap row = counts.computeIfAbsent(basket.getLong(i), id -> new Long2IntOpenHashMap());
+            for (int j = 0; j < basket.size(); j++) {
+                if (i != j) {
+                    row.addTo(basket.getLong(j), 1);
+                }
+            }
+        }
+    }
+
+    private static void mergeCounts(Long2ObjectOpenHashMap<Long2IntOpenHashMap> target,
+                                    Long2ObjectOpenHashMap<Long2IntOpenHashMap> source) {
+        for (Long2ObjectMap.Entry<Long2IntOpenHashMap> entry : source.long2ObjectEntrySet()) {
+            Long2IntOpenHashMap row = target.computeIfAbsent(entry.getLongKey(), id -> new Long2IntOpenHashMap());
+            for (Long2IntMap.Entry count : entry.getValue().long2IntEntrySet()) {
+                row.addTo(count.getLongKey(), count.getIntValue());
+            }
+        }
+    }
+
+    private long[] selectTopK(Long2IntOpenHashMap counts) {
+        int k = Math.min(topK, counts.size());
+        long[] ids = new long[k];
+        int[] scores = new int[k];
+        int size = 0;
+
+        for (Long2IntMap.Entry entry : counts.long2IntEntrySet()) {
+            long id = entry.getLongKey();
+            int score = entry.getIntValue();
+            if (size == k && (k == 0 || !ranksBefore(score, id, scores[k - 1], ids[k - 1]))) {
+                continue;
+            }
+            int pos = size < k ? size++ : k - 1;
+            while (pos > 0 && ranksBefore(score, id, scores[pos - 1], ids[pos - 1])) {
+                ids[pos] = ids[pos - 1];
+                scores[pos] = scores[pos - 1];
+                pos--;
+            }
+            ids[pos] = id;
+            scores[pos] = score;
+        }
+        return ids;
+    }
+
+    private static boolean ranksBefore(int score, long id, int otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+}
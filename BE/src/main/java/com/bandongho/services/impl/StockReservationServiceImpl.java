@@ -0,0 +1,276 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.aspects.RetryOnConflict;
+import com.bandongho.dtos.OrderItemDTO;
+import com.bandongho.dtos.StockReservationDTO;
+import com.bandongho.entities.InventoryMovement;
+import com.bandongho.entities.Product;
+import com.bandongho.entities.StockReservation;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.exceptions.ResourceNotFoundException;
+import com.bandongho.repositories.ProductRepository;
+import com.bandongho.repositories.StockReservationRepository;
+import com.bandongho.services.InventoryLedgerService;
+import com.bandongho.services.StockReservationService;
+import com.bandongho.services.StockService;
+import com.bandongho.utils.HashedTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Checkout stock holds. Reserving takes the stock immediately and stores the hold in
+// stock_reservations; a hashed timing wheel fires at the deadline and gives back the stock of all
+// holds due in that tick in one transaction. The table is only read again on startup, to re-arm
+// holds that were active when the application stopped.
+@Service
+@Transactional
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final int EXPIRY_BATCH_SIZE = 500;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reservations.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${app.reservations.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${app.reservations.wheel-size:512}")
+    private int wheelSize;
+
+    private HashedTimingWheel expiryWheel;
+    private Counter createdCounter;
+    private Counter confirmedCounter;
+    private Counter expiredCounter;
+
+    @PostConstruct
+    public void init() {
+        expiryWheel = new HashedTimingWheel("reservation-expiry", tickMs, wheelSize, this::expire);
+        createdCounter = meterRegistry.counter("bandongho.reservations.created");
+        confirmedCounter = meterRegistry.counter("bandongho.reservations.confirmed");
+        expiredCounter = meterRegistry.counter("bandongho.reservations.expired");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryWheel.stop();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rescheduleActiveReservations() {
+        List<Object[]> deadlines = reservationRepository.findAllDeadlines();
+        for (Object[] row : deadlines) {
+            schedule((Long) row[0], (LocalDateTime) row[1]);
+        }
+        if (!deadlines.isEmpty()) {
+            System.out.println("Re-armed " + deadlines.size() + " stock reservations");
+        }
+    }
+
+    @Override
+    @RetryOnConflict
+    public StockReservationDTO reserve(StockReservationDTO reservationDTO) {
+        // A user holds at most one reservation; re-entering checkout replaces it
+        for (Long previousId : reservationRepository.findIdsByUserId(reservationDTO.getUserId())) {
+            release(previousId);
+        }
+
+        // Merge duplicate lines and take stock in product id order so concurrent holds lock rows consistently
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemDTO item : reservationDTO.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        StockReservation reservation = new StockReservation();
+        reservation.setUserId(reservationDTO.getUserId());
+        reservation.setExpiresAt(LocalDateTime.now().plusSeconds(ttlSeconds));
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            reservation.getItems().add(new StockReservation.Item(entry.getKey(), entry.getValue()));
+        }
+        StockReservation savedReservation = reservationRepository.save(reservation);
+
+        Map<Long, Product> products = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = productRepository.findById(entry.getKey())
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + entry.getKey()));
+            // Throws if there is not enough stock, rolling back the whole reservation
+            stockService.decreaseStock(product, entry.getValue());
+            inventoryLedgerService.recordMovement(product.getId(), -entry.getValue(),
+                    InventoryMovement.MovementType.RESERVATION, "reservation:" + savedReservation.getId());
+            products.put(product.getId(), product);
+        }
+
+        // If this transaction rolls back the timer finds no row and does nothing
+        schedule(savedReservation.getId(), savedReservation.getExpiresAt());
+        createdCounter.increment();
+        return convertToDTO(savedReservation, products);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StockReservationDTO getReservation(Long id) {
+        StockReservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found or expired with id: " + id));
+        Map<Long, Product> products = productRepository.findAllById(reservation.getItems().stream()
+                        .map(StockReservation.Item::getProductId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        return convertToDTO(reservation, products);
+    }
+
+    @Override
+    @RetryOnConflict
+    public void release(Long id) {
+        // Releasing a hold that already expired or was checked out is a no-op
+        reservationRepository.findByIdForUpdate(id).ifPresent(reservation -> {
+            for (StockReservation.Item item : reservation.getItems()) {
+                returnStock(item.getProductId(), item.getQuantity(), "reservation:" + id);
+            }
+            reservationRepository.delete(reservation);
+        });
+    }
+
+    @Override
+    public Map<Long, Integer> consume(Long id, Long userId, Map<Long, Integer> wanted, String reference) {
+        Map<Long, Integer> covered = new HashMap<>();
+        if (id == null) {
+            return covered;
+        }
+        StockReservation reservation = reservationRepository.findByIdForUpdate(id).orElse(null);
+        if (reservation == null) {
+            // Expired before checkout: the caller takes the stock directly
+            return covered;
+        }
+        if (!reservation.getUserId().equals(userId)) {
+            throw new BusinessException("Reservation does not belong to this user");
+        }
+
+        Map<Long, Integer> remaining = new HashMap<>(wanted);
+        for (StockReservation.Item item : reservation.getItems()) {
+            int take = Math.min(item.getQuantity(), remaining.getOrDefault(item.getProductId(), 0));
+            if (take > 0) {
+                covered.merge(item.getProductId(), take, Integer::sum);
+                remaining.merge(item.getProductId(), -take, Integer::sum);
+                // The caller records the sale, so the held quantity is released in the ledger here
+                inventoryLedgerService.recordMovement(item.getProductId(), take,
+                        InventoryMovement.MovementType.RESERVATION_RELEASE, reference);
+            }
+            // Items removed from the cart after reserving go back to stock
+            if (item.getQuantity() > take) {
+                returnStock(item.getProductId(), item.getQuantity() - take, reference);
+            }
+        }
+        reservationRepository.delete(reservation);
+        confirmedCounter.increment();
+        return covered;
+    }
+
+    // Runs on the wheel thread with every reservation whose deadline fell in the current tick
+    private void expire(LongArrayList ids) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < ids.size(); from += EXPIRY_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, ids.size()));
+            try {
+                Integer expired = transaction.execute(status -> releaseExpired(batch));
+                expiredCounter.increment(expired != null ? expired : 0);
+            } catch (RuntimeException e) {
+                // Usually a conflicting product update; try the batch again on the next tick
+                System.err.println("Error releasing expired reservations, retrying: " + e.getMessage());
+                for (Long id : batch) {
+                    expiryWheel.schedule(id, tickMs);
+                }
+            }
+        }
+    }
+
+    private int releaseExpired(List<Long> ids) {
+        List<StockReservation> reservations = reservationRepository.findAllByIdForUpdate(ids);
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+        // One stock update and one ledger row per product, however many holds it was in
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservation reservation : reservations) {
+            for (StockReservation.Item item : reservation.getItems()) {
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            returnStock(entry.getKey(), entry.getValue(), "reservation-expiry");
+        }
+        reservationRepository.deleteAll(reservations);
+        return reservations.size();
+    }
+
+    private void returnStock(Long productId, int quantity, String reference) {
+        Product product = productRepository.findById(productId).orElse(null);
+        if (product == null) {
+            return;
+        }
+        stockService.increaseStock(product, quantity);
+        inventoryLedgerService.recordMovement(productId, quantity,
+                InventoryMovement.MovementType.RESERVATION_RELEASE, reference);
+    }
+
+    private void schedule(Long id, LocalDateTime expiresAt) {
+        expiryWheel.schedule(id, Duration.between(LocalDateTime.now(), expiresAt).toMillis());
+    }
+
+    private StockReservationDTO convertToDTO(StockReservation reservation, Map<Long, Product> products) {
+        StockReservationDTO dto = new StockReservationDTO();
+        dto.setId(reservation.getId());
+        dto.setUserId(reservation.getUserId());
+        dto.setExpiresAt(reservation.getExpiresAt());
+        dto.setItems(reservation.getItems().stream()
+                .map(item -> {
+                    OrderItemDTO itemDTO = new OrderItemDTO();
+                    itemDTO.setProductId(item.getProductId());
+                    itemDTO.setQuantity(item.getQuantity());
+                    Product product = products.get(item.getProductId());
+                    if (product != null) {
+                        itemDTO.setProductName(product.getName());
+                        itemDTO.setProductImageUrl(product.getImageUrl());
+                        itemDTO.setPrice(product.getPrice());
+                    }
+                    return itemDTO;
+                })
+                .collect(Collectors.toList()));
+        return dto;
+    }
+}
@@ -0,0 +1,147 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.entities.Product;
+import com.bandongho.entities.ProductStockShard;
+import com.bandongho.exceptions.BusinessException;
+import com.bandongho.repositories.ProductRepository;
+import com.bandongho.repositories.ProductStockShardRepository;
+import com.bandongho.services.StockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Single entry point for stock changes and the stock of record. Normal products keep stock on the
+// products row; hot SKUs (stockShards > 0) spread it over shard rows so concurrent checkouts lock
+// different rows. The inventory ledger records every change but is never read to decide one.
+@Service
+@Transactional
+public class StockServiceImpl implements StockService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockShardRepository shardRepository;
+
+    @Value("${app.stock.max-shards:64}")
+    private int maxShards;
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getStock(Product product) {
+        if (!isSharded(product)) {
+            return product.getStock();
+        }
+        return shardRepository.sumStock(product.getId()).intValue();
+    }
+
+    @Override
+    public void decreaseStock(Product product, int quantity) {
+        if (!isSharded(product)) {
+            if (product.getStock() < quantity) {
+                throw new BusinessException("Insufficient stock for product: " + product.getName());
+            }
+            product.setStock(product.getStock() - quantity);
+            productRepository.save(product);
+            return;
+        }
+
+        // Start at a random shard and walk the others; each attempt is a single-row conditional update
+        int shards = product.getStockShards();
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (shardRepository.tryDecrement(product.getId(), (start + i) % shards, quantity) == 1) {
+                return;
+            }
+        }
+
+        // No single shard could cover the quantity on its own. Fail fast if the shards together cannot
+        // either; otherwise lock them all and take it across shards.
+        if (shardRepository.sumStock(product.getId()) < quantity) {
+            throw new BusinessException("Insufficient stock for product: " + product.getName());
+        }
+        List<Object[]> locked = shardRepository.lockShards(product.getId());
+        int available = locked.stream().mapToInt(row -> ((Number) row[1]).intValue()).sum();
+        if (available < quantity) {
+            throw new BusinessException("Insufficient stock for product: " + product.getName());
+        }
+        int remaining = quantity;
+        for (Object[] row : locked) {
+            int take = Math.min(remaining, ((Number) row[1]).intValue());
+            if (take > 0) {
+                shardRepository.setShardStock(product.getId(), ((Number) row[0]).intValue(), ((Number) row[1]).intValue() - take);
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void increaseStock(Product product, int quantity) {
+        if (!isSharded(product)) {
+            product.setStock(product.getStock() + quantity);
+            productRepository.save(product);
+            return;
+        }
+        shardRepository.increment(product.getId(), ThreadLocalRandom.current().nextInt(product.getStockShards()), quantity);
+    }
+
+    @Override
+    public void setStock(Product product, int stock) {
+        if (!isSharded(product)) {
+            product.setStock(stock);
+            return;
+        }
+        shardRepository.lockShards(product.getId());
+        distribute(product.getId(), product.getStockShards(), stock, false);
+    }
+
+    @Override
+    public void configureShards(Product product, int shards) {
+        if (shards < 0 || shards > maxShards) {
+            throw new BusinessException("Stock shards must be between 0 and " + maxShards);
+        }
+        int current = product.getStockShards() != null ? product.getStockShards() : 0;
+        if (shards == current) {
+            return;
+        }
+
+        int total;
+        if (current > 0) {
+            List<Object[]> locked = shardRepository.lockShards(product.getId());
+            total = locked.stream().mapToInt(row -> ((Number) row[1]).intValue()).sum();
+            shardRepository.deleteByProductId(product.getId());
+        } else {
+            total = product.getStock();
+        }
+
+        if (shards > 0) {
+            distribute(product.getId(), shards, total, true);
+        }
+        // While sharded, products.stock keeps the value from when sharding was enabled and is not read
+        product.setStock(total);
+        product.setStockShards(shards);
+        productRepository.save(product);
+    }
+
+    private void distribute(Long productId, int shards, int total, boolean create) {
+        for (int shardNo = 0; shardNo < shards; shardNo++) {
+            int shardStock = total / shards + (shardNo < total % shards ? 1 : 0);
+            if (create) {
+                shardRepository.save(new ProductStockShard(null, productId, shardNo, shardStock));
+            } else {
+                shardRepository.setShardStock(productId, shardNo, shardStock);
+            }
+        }
+    }
+
+    private boolean isSharded(Product product) {
+        return product.getStockShards() != null && product.getStockShards() > 0;
+    }
+}
@@ -3,13 +3,17 @@ package com.bandongho.services.impl;
 import com.bandongho.dtos.RegisterRequest;
 import com.bandongho.dtos.UpdateUserRequest;
 import com.bandongho.dtos.UserDTO;
+import com.bandongho.entities.CacheInvalidation;
 import com.bandongho.entities.User;
+import com.bandongho.events.UserChangedEvent;
 import com.bandongho.exceptions.ResourceNotFoundException;
 import com.bandongho.exceptions.DuplicateEmailException;
 import com.bandongho.repositories.UserRepository;
+import com.bandongho.services.CacheInvalidationService;
 import com.bandongho.services.EmailService;
 import com.bandongho.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +30,12 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
     @Override
     public UserDTO register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -41,11 +51,14 @@ public class UserServiceImpl implements UserService {
         user.setRole(User.UserRole.CUSTOMER);
 
         User savedUser = userRepository.save(user);
+        UserDTO savedDTO = convertToDTO(savedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(savedDTO.getId(), savedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.USER, savedDTO.getId());
         
         // Send registration email
         emailService.sendRegistrationEmail(savedUser.getEmail(), savedUser.getFullName());
 
-        return convertToDTO(savedUser);
+        return savedDTO;
     }
 
     @Override
@@ -111,7 +124,10 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
-        return convertToDTO(updatedUser);
+        UserDTO updatedDTO = convertToDTO(updatedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(id, updatedDTO));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.USER, id);
+        return updatedDTO;
     }
 
     @Override
@@ -137,6 +153,8 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id, null));
+        cacheInvalidationService.publish(CacheInvalidation.EntityType.USER, id);
     }
 
     @Override
@@ -0,0 +1,230 @@
+package com.bandongho.services.impl;
+
+import com.bandongho.dtos.ApiResponse;
+import com.bandongho.dtos.CategoryDTO;
+import com.bandongho.dtos.OrderDTO;
+import com.bandongho.dtos.ProductDTO;
+import com.bandongho.repositories.OrderRepository;
+import com.bandongho.services.CategoryService;
+import com.bandongho.services.OrderSearchService;
+import com.bandongho.services.OrderService;
+import com.bandongho.services.ProductService;
+import com.bandongho.services.RecommendationService;
+import com.bandongho.services.WarmUpService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs once the application is ready (so after DataInitializer) and keeps the node out of the
+// readiness group until it is done: fills the connection pool to its minimum, loads the catalog
+// caches and the search/recommendation indexes, then replays the storefront read paths and their
+// JSON serialization until a round's time stops improving, i.e. the hot code has been compiled.
+@Service
+public class WarmUpServiceImpl implements WarmUpService {
+
+    private static final int ROUNDS_PER_WINDOW = 20;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.min-rounds:200}")
+    private int minRounds;
+
+    @Value("${app.warmup.max-rounds:2000}")
+    private int maxRounds;
+
+    @Value("${app.warmup.max-duration-ms:60000}")
+    private long maxDurationMs;
+
+    // A window of rounds within this fraction of the previous window's time counts as steady
+    @Value("${app.warmup.steady-tolerance:0.1}")
+    private double steadyTolerance;
+
+    private volatile boolean complete = false;
+    private final Map<String, Object> report = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicLong timeToSteadyStateMs = new AtomicLong();
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gauge("bandongho.warmup.time-to-steady-state.ms", timeToSteadyStateMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread warmer = new Thread(this::warmUp, "warm-up");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    @Override
+    public synchronized void warmUp() {
+        if (complete) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            report.put("connections", openPool());
+            List<ProductDTO> products = productService.getAllProducts();
+            List<CategoryDTO> categories = categoryService.getAllCategories();
+            for (CategoryDTO category : categories) {
+                productService.getProductsByCategory(category.getId());
+            }
+            for (ProductDTO product : products) {
+                productService.getProductById(product.getId());
+            }
+            orderSearchService.loadIndex();
+            recommendationService.loadHistory();
+            report.put("products", products.size());
+            report.put("categories", categories.size());
+            report.put("rounds", exerciseReadPaths(products, categories));
+        } catch (RuntimeException e) {
+            // A broken warm-up must not keep the node out of rotation; it just starts cold
+            meterRegistry.counter("bandongho.warmup.failures").increment();
+            report.put("error", e.getMessage());
+            System.err.println("Warm-up failed, serving cold: " + e.getMessage());
+        } finally {
+            long warmUpMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+            report.put("warmUpMs", warmUpMs);
+            report.put("timeToSteadyStateMs", uptimeMs);
+            meterRegistry.timer("bandongho.warmup.duration").record(warmUpMs, TimeUnit.MILLISECONDS);
+            timeToSteadyStateMs.set(uptimeMs);
+            complete = true;
+            System.out.println("Warm-up finished in " + warmUpMs + " ms, steady state " + uptimeMs + " ms after JVM start");
+        }
+    }
+
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public Map<String, Object> getReport() {
+        synchronized (report) {
+            return new LinkedHashMap<>(report);
+        }
+    }
+
+    // Holds minimum-idle connections at once so the pool opens them now rather than under load
+    private int openPool() {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        int target = hikari != null ? hikari.getMinimumIdle() : 1;
+        List<Connection> connections = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            System.err.println("Warm-up opened only " + connections.size() + " of " + target + " connections: " + e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Returning to the pool; nothing to recover
+                }
+            }
+        }
+        return connections.size();
+    }
+
+    private int exerciseReadPaths(List<ProductDTO> products, List<CategoryDTO> categories) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        Long lastOrderId = orderRepository.findMaxId();
+        OrderDTO sampleOrder = lastOrderId != null ? orderService.getOrderById(lastOrderId) : null;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        long previousWindow = Long.MAX_VALUE;
+        long windowStartedAt = System.nanoTime();
+        int round = 0;
+        while (round < maxRounds && System.nanoTime() < deadline) {
+            ProductDTO product = products.get(round % products.size());
+            serialize(productService.getAllProducts());
+            serialize(productService.getProductById(product.getId()));
+            serialize(productService.searchProducts(product.getName().substring(0, Math.min(3, product.getName().length()))));
+            serialize(recommendationService.getRelatedProducts(product.getId(), 4));
+            if (!categories.isEmpty()) {
+                CategoryDTO category = categories.get(round % categories.size());
+                serialize(categoryService.getAllCategories());
+                serialize(productService.getProductsByCategory(category.getId()));
+            }
+            if (sampleOrder != null) {
+                serialize(orderService.getOrderById(sampleOrder.getId()));
+                serialize(orderService.getOrderHistory(sampleOrder.getUserId(), null, 20, true));
+            }
+            round++;
+
+            if (round % ROUNDS_PER_WINDOW == 0) {
+                long window = System.nanoTime() - windowStartedAt;
+                if (round >= minRounds && window >= previousWindow * (1 - steadyTolerance)) {
+                    break;
+                }
+                previousWindow = Math.min(previousWindow, window);
+                windowStartedAt = System.nanoTime();
+            }
+        }
+        return round;
+    }
+
+    private void serialize(Object data) {
+        try {
+            objectMapper.writeValueAsBytes(ApiResponse.success(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + data.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.bandongho.utils;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Hashed timing wheel for id deadlines. schedule() only appends to a lock-free queue; a single
+// worker thread moves new entries into buckets and, once per tick, hands every id whose deadline
+// passed to the callback as one batch. Deadlines are rounded up to the tick.
+public class HashedTimingWheel {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Entry>[] buckets;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<LongArrayList> onExpired;
+    private final Thread worker;
+    private final long startNanos;
+
+    private volatile boolean running = true;
+
+    // Ticks processed so far; touched only by the worker thread
+    private long tick = 0;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickMs, int wheelSize, Consumer<LongArrayList> onExpired) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.mask = Math.max(size, 1) - 1;
+        this.buckets = new List[mask + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.onExpired = onExpired;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void schedule(long id, long delayMs) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        pending.add(new Entry(id, (deadline + tickNanos - 1) / tickNanos));
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long wakeAt = (tick + 1) * tickNanos;
+            long sleepNanos = wakeAt - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            tick++;
+            transferPending();
+
+            LongArrayList expired = new LongArrayList();
+            Iterator<Entry> it = buckets[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.deadlineTick <= tick) {
+                    expired.add(entry.id);
+                    it.remove();
+                }
+            }
+            if (!expired.isEmpty()) {
+                try {
+                    onExpired.accept(expired);
+                } catch (RuntimeException e) {
+                    System.err.println("Error handling expired timers on " + worker.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void transferPending() {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            // Already due: fire on this tick instead of waiting a full rotation
+            long slot = Math.max(entry.deadlineTick, tick);
+            buckets[(int) (slot & mask)].add(entry.deadlineTick < tick ? new Entry(entry.id, tick) : entry);
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadlineTick;
+
+        private Entry(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.bandongho.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// Read-through cache where concurrent misses on a key share one load: the first caller runs the
+// loader on its own thread and everyone else arriving meanwhile waits for that result. Entries
+// older than refreshAfterMs are still served, but the first read after that point reloads them in
+// the background, so a key that keeps being read never goes cold. Entries older than ttlMs are not
+// served at all. A load that overlaps an invalidation of its key is returned to its callers but not
+// stored; loads of other keys are unaffected.
+public class SingleFlightCache<K, V> {
+
+    private final String name;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter refreshes;
+
+    public SingleFlightCache(String name, long ttlMs, long refreshAfterMs, int maxEntries, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.refreshAfterNanos = Math.min(refreshAfterMs, ttlMs) * 1_000_000L;
+        this.maxEntries = maxEntries;
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Tags tags = Tags.of("cache", name);
+        hits = meterRegistry.counter("bandongho.cache.hits", tags);
+        misses = meterRegistry.counter("bandongho.cache.misses", tags);
+        coalesced = meterRegistry.counter("bandongho.cache.coalesced", tags);
+        refreshes = meterRegistry.counter("bandongho.cache.refreshes", tags);
+        meterRegistry.gaugeMapSize("bandongho.cache.size", tags, entries);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            hits.increment();
+            if (now - entry.loadedAt >= refreshAfterNanos) {
+                refreshAhead(key, loader);
+            }
+            return entry.value;
+        }
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+        misses.increment();
+        return load(key, loader, mine);
+    }
+
+    // Value cached for key that can still be served, or null; never loads and counts nothing
+    public V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && System.nanoTime() - entry.loadedAt < ttlNanos ? entry.value : null;
+    }
+
+    // The in-flight load is dropped before the entry, so a load storing its result concurrently
+    // either stores before the entry is removed or finds itself no longer in flight (see load)
+    public void invalidate(K key) {
+        inFlight.remove(key);
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+        entries.clear();
+    }
+
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    private void refreshAhead(K key, Function<K, V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, mine) != null) {
+            return;
+        }
+        refreshes.increment();
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(key, loader, mine);
+                } catch (RuntimeException e) {
+                    // Readers keep the current value until it expires
+                    System.err.println("Refreshing " + name + " entry " + key + " failed: " + e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private V load(K key, Function<K, V> loader, CompletableFuture<V> result) {
+        try {
+            V value = loader.apply(key);
+            if (value != null) {
+                // Stored only while this is still the key's in-flight load, under that mapping's lock
+                inFlight.computeIfPresent(key, (k, current) -> {
+                    if (current == result) {
+                        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+                            entries.clear();
+                        }
+                        entries.put(key, new Entry<>(value, System.nanoTime()));
+                    }
+                    return current;
+                });
+            }
+            result.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, result);
+        }
+    }
+
+    private V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            // Waiters see the same exception the loading caller got (e.g. ResourceNotFoundException)
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+-- Tables and columns added before the migrations existed, while ddl-auto=update still managed the
+-- schema. A database baselined at V1 may already have some of them, so every statement only adds
+-- what is missing.
+
+-- Optimistic locking
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL AFTER category_id;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL AFTER phone_number;
+
+-- Hot SKU stock sharding: 0 = stock lives in products.stock
+ALTER TABLE products ADD COLUMN IF NOT EXISTS stock_shards INT DEFAULT 0 NOT NULL AFTER reviews;
+
+-- Keyset order history
+CREATE INDEX IF NOT EXISTS idx_orders_user_created ON orders (user_id, created_at);
+
+CREATE TABLE IF NOT EXISTS product_stock_shards (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    product_id BIGINT NOT NULL,
+    shard_no INT NOT NULL,
+    stock INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_product_stock_shards UNIQUE (product_id, shard_no)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS inventory_movements (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    product_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    type VARCHAR(32) NOT NULL,
+    reference VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_product ON inventory_movements (product_id, id);
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_created ON inventory_movements (created_at);
+
+CREATE TABLE IF NOT EXISTS inventory_snapshots (
+    product_id BIGINT NOT NULL,
+    stock INT NOT NULL,
+    last_movement_id BIGINT NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (product_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_user ON stock_reservations (user_id);
+
+CREATE TABLE IF NOT EXISTS stock_reservation_items (
+    reservation_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    CONSTRAINT fk_stock_reservation_items_reservation FOREIGN KEY (reservation_id) REFERENCES stock_reservations (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS carts (
+    user_id BIGINT NOT NULL,
+    items TEXT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    entity_type VARCHAR(32) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    origin_node VARCHAR(64) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX IF NOT EXISTS idx_cache_invalidations_created ON cache_invalidations (created_at);
+
+CREATE TABLE IF NOT EXISTS job_leases (
+    name VARCHAR(100) NOT NULL,
+    owner VARCHAR(64) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    expires_at DATETIME(3) NOT NULL,
+    acquired_at DATETIME(3) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
@@ -0,0 +1,18 @@
+-- Indexes for the hot read paths; the entities declare them too, so ddl-auto may already have made
+-- them on a database baselined at V1. orders (user_id, created_at) comes from V1_1 and also
+-- serves the history ORDER BY created_at, id: InnoDB secondary indexes end with the primary key.
+
+-- Admin order list (ORDER BY created_at DESC)
+CREATE INDEX IF NOT EXISTS idx_orders_created ON orders (created_at);
+
+-- Orders by status, newest first (status filters, bulk status transitions)
+CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders (status, created_at);
+
+-- Products by category; replaces the implicit foreign key index
+CREATE INDEX IF NOT EXISTS idx_products_category ON products (category_id);
+
+-- "Is this product in any order" and per-product order history; covers the join back to orders
+CREATE INDEX IF NOT EXISTS idx_order_items_product ON order_items (product_id, order_id);
+
+-- Customer lookup by phone
+CREATE INDEX IF NOT EXISTS idx_users_phone ON users (phone);
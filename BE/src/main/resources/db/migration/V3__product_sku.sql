@@ -0,0 +1,6 @@
+-- Stable external key for products, used by the bulk import to upsert
+ALTER TABLE products ADD COLUMN sku VARCHAR(64) NULL AFTER id;
+CREATE UNIQUE INDEX uk_products_sku ON products (sku);
+
+-- A NULL entity_id invalidates every cached entry of that type (bulk writes)
+ALTER TABLE cache_invalidations MODIFY entity_id BIGINT NULL;
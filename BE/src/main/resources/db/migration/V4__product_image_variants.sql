@@ -0,0 +1,3 @@
+-- Responsive image variants made by the image worker; NULL = not generated yet, '' = none could be made
+ALTER TABLE products
+    ADD COLUMN image_srcset VARCHAR(2000) NULL AFTER image_url;
@@ -0,0 +1,2 @@
+-- Bumped by every cart flush; a node whose copy is older than the row cannot overwrite it
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER items;
@@ -0,0 +1,2 @@
+-- created_at comes from the database clock instead of the publishing node's
+ALTER TABLE cache_invalidations MODIFY created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
@@ -0,0 +1,9 @@
+-- Idempotency-Key claims shared by all nodes; response is null while the first request runs
+CREATE TABLE idempotency_keys (
+    scoped_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    response MEDIUMTEXT,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_idempotency_keys_created ON idempotency_keys (created_at);
@@ -0,0 +1,51 @@
+package com.bandongho;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Two application nodes in one JVM, sharing one MariaDB and the in-memory invalidation transport,
+// so cross-node behaviour can be checked without starting separate processes. Skipped without Docker.
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class TwoNodeTestSupport {
+
+    @Container
+    protected static final MariaDBContainer<?> DATABASE = new MariaDBContainer<>("mariadb:11");
+
+    protected static ConfigurableApplicationContext nodeA;
+    protected static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(BanDongHoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + DATABASE.getJdbcUrl(),
+                        "spring.datasource.username=" + DATABASE.getUsername(),
+                        "spring.datasource.password=" + DATABASE.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "app.node-id=" + nodeId,
+                        "app.cache.invalidation.transport=memory")
+                .run();
+    }
+}
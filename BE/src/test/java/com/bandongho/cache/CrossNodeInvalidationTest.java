@@ -0,0 +1,64 @@
+package com.bandongho.cache;
+
+import com.bandongho.TwoNodeTestSupport;
+import com.bandongho.dtos.CheckoutRequest;
+import com.bandongho.dtos.OrderDTO;
+import com.bandongho.dtos.OrderItemDTO;
+import com.bandongho.dtos.ProductDTO;
+import com.bandongho.dtos.RegisterRequest;
+import com.bandongho.dtos.UserDTO;
+import com.bandongho.services.OrderSearchService;
+import com.bandongho.services.OrderService;
+import com.bandongho.services.ProductService;
+import com.bandongho.services.UserService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrossNodeInvalidationTest extends TwoNodeTestSupport {
+
+    @Test
+    void productChangedOnOneNodeIsReloadedByTheOther() {
+        ProductService productsOnA = nodeA.getBean(ProductService.class);
+        ProductService productsOnB = nodeB.getBean(ProductService.class);
+        ProductDTO product = productsOnB.getAllProducts().get(0);
+        // Cached on node B before the change
+        productsOnB.getProductById(product.getId());
+
+        ProductDTO change = new ProductDTO();
+        change.setPrice(product.getPrice().add(BigDecimal.TEN));
+        productsOnA.updateProduct(product.getId(), change);
+
+        assertEquals(0, change.getPrice().compareTo(productsOnB.getProductById(product.getId()).getPrice()));
+        assertTrue(productsOnB.getAllProducts().stream()
+                .anyMatch(listed -> listed.getId().equals(product.getId()) && listed.getPrice().compareTo(change.getPrice()) == 0));
+    }
+
+    @Test
+    void orderPlacedOnOneNodeIsFoundByAdminSearchOnTheOther() {
+        OrderSearchService searchOnB = nodeB.getBean(OrderSearchService.class);
+        // Bootstrap finished, so the order can only reach node B's index through the bus
+        searchOnB.loadIndex();
+
+        UserDTO user = nodeA.getBean(UserService.class).register(new RegisterRequest(
+                "two-nodes@example.com", "secret123", "Two Nodes", "0900000001", "1 Test St"));
+        ProductDTO product = nodeA.getBean(ProductService.class).getAllProducts().get(0);
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(user.getId());
+        request.setShippingAddress("1 Test St");
+        request.setPhoneNumber("0900000001");
+        OrderItemDTO item = new OrderItemDTO();
+        item.setProductId(product.getId());
+        item.setQuantity(1);
+
+        OrderDTO order = nodeA.getBean(OrderService.class).createOrder(request, List.of(item));
+
+        long[] candidates = searchOnB.findCandidates(order.getOrderNumber(), Long.MAX_VALUE, 10);
+        assertTrue(Arrays.stream(candidates).anyMatch(id -> id == order.getId()));
+    }
+}
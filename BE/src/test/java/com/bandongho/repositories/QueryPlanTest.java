@@ -0,0 +1,183 @@
+package com.bandongho.repositories;
+
+import com.bandongho.BanDongHoApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs every @Query in the repositories once, reads the SQL it sent back from the general log and
+// EXPLAINs it; a table read with a full scan (type ALL) fails the test unless the query is listed
+// in EXPECTED_SCANS. max_seeks_for_key=1 makes the optimizer take an index whenever one applies,
+// so the nearly empty test tables do not turn indexed lookups into scans. Skipped without Docker.
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    // Queries that read whole tables on purpose, with the reason
+    private static final Map<String, String> EXPECTED_SCANS = Map.ofEntries(
+            Map.entry("ProductRepository.searchByNameOrDescription", "LIKE '%keyword%' cannot use a B-tree index"),
+            Map.entry("ProductRepository.searchByCategoryAndKeyword", "LIKE '%keyword%' within a category"),
+            Map.entry("ProductRepository.findImagesWithoutVariants", "background sweep over product images"),
+            Map.entry("OrderRepository.searchOrders", "LIKE '%keyword%'; admin search uses the in-memory index"),
+            Map.entry("OrderRepository.searchOrdersBefore", "LIKE '%keyword%'; fallback of the in-memory index"),
+            Map.entry("CategoryRepository.searchByName", "LIKE '%keyword%' over a small table"),
+            Map.entry("UserRepository.findSearchFields", "loads every user into the in-memory search index"),
+            Map.entry("StockReservationRepository.findAllDeadlines", "loads every reservation into the timer wheel at startup"),
+            Map.entry("InventoryMovementRepository.insertOpeningBalances", "one-off ledger bootstrap over all products"),
+            Map.entry("InventoryMovementRepository.deleteCompactedBefore", "compaction joins every snapshot"),
+            Map.entry("InventorySnapshotRepository.compactUpTo", "compaction reads every movement up to the watermark"));
+
+    @Container
+    private static final MariaDBContainer<?> DATABASE = new MariaDBContainer<>("mariadb:11")
+            .withUsername("root")
+            .withCommand("--general-log=1", "--log-output=TABLE", "--max-seeks-for-key=1");
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void startNode() {
+        context = new SpringApplicationBuilder(BanDongHoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + DATABASE.getJdbcUrl(),
+                        "spring.datasource.username=" + DATABASE.getUsername(),
+                        "spring.datasource.password=" + DATABASE.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "app.cache.invalidation.transport=memory")
+                .run();
+    }
+
+    @AfterAll
+    static void stopNode() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void queriesUseIndexesUnlessTheyAreExpectedToScan() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Map<String, Set<String>> unexpectedScans = new TreeMap<>();
+        Set<String> checked = new TreeSet<>();
+        for (Object repository : context.getBeansOfType(Repository.class).values()) {
+            for (Class<?> repositoryInterface : repository.getClass().getInterfaces()) {
+                if (!repositoryInterface.getPackageName().equals(QueryPlanTest.class.getPackageName())) {
+                    continue;
+                }
+                for (Method method : repositoryInterface.getDeclaredMethods()) {
+                    if (!method.isAnnotationPresent(Query.class)) {
+                        continue;
+                    }
+                    String name = repositoryInterface.getSimpleName() + "." + method.getName();
+                    checked.add(name);
+                    for (String sql : statementsSentBy(jdbcTemplate, transaction, repository, method)) {
+                        Set<String> scanned = fullScans(jdbcTemplate, sql);
+                        if (!scanned.isEmpty() && !EXPECTED_SCANS.containsKey(name)) {
+                            unexpectedScans.computeIfAbsent(name, key -> new TreeSet<>()).addAll(scanned);
+                        }
+                    }
+                }
+            }
+        }
+
+        assertTrue(checked.containsAll(EXPECTED_SCANS.keySet()), "Expected scans name queries that no longer exist");
+        assertTrue(unexpectedScans.isEmpty(), "Queries scanning whole tables: " + unexpectedScans);
+    }
+
+    // Runs the query on a connection of its own transaction, rolled back afterwards, and returns
+    // the statements that connection sent
+    private static List<String> statementsSentBy(JdbcTemplate jdbcTemplate, TransactionTemplate transaction,
+                                                 Object repository, Method method) {
+        jdbcTemplate.execute("TRUNCATE TABLE mysql.general_log");
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            long connectionId = jdbcTemplate.queryForObject("SELECT CONNECTION_ID()", Long.class);
+            try {
+                method.invoke(repository, sampleArguments(method));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                // The statement was still sent, which is all the plan check needs
+            }
+            List<String> statements = new ArrayList<>();
+            for (String sql : jdbcTemplate.queryForList("SELECT CONVERT(argument USING utf8mb4) FROM mysql.general_log " +
+                    "WHERE thread_id = ? AND command_type IN ('Query', 'Execute') ORDER BY event_time", String.class, connectionId)) {
+                String lower = sql.trim().toLowerCase(Locale.ROOT);
+                if ((lower.startsWith("select") || lower.startsWith("insert") || lower.startsWith("update")
+                        || lower.startsWith("delete")) && !lower.contains("general_log") && !lower.contains("connection_id()")) {
+                    statements.add(sql);
+                }
+            }
+            return statements;
+        });
+    }
+
+    private static Set<String> fullScans(JdbcTemplate jdbcTemplate, String sql) {
+        Set<String> tables = new TreeSet<>();
+        jdbcTemplate.query("EXPLAIN " + sql, rs -> {
+            if ("ALL".equals(rs.getString("type"))) {
+                tables.add(rs.getString("table"));
+            }
+        });
+        return tables;
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = sampleValue(types[i]);
+        }
+        return arguments;
+    }
+
+    private static Object sampleValue(Class<?> type) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == String.class) {
+            return "a";
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (Pageable.class.isAssignableFrom(type)) {
+            return PageRequest.of(0, 10);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L);
+        }
+        throw new IllegalArgumentException("No sample value for parameter type " + type.getName());
+    }
+}
@@ -0,0 +1,64 @@
+package com.bandongho.services;
+
+import com.bandongho.TwoNodeTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaseServiceMultiNodeTest extends TwoNodeTestSupport {
+
+    @Test
+    void onlyOneNodeHoldsALeaseAndTheNextHolderGetsANewerToken() {
+        LeaseService leasesOnA = nodeA.getBean(LeaseService.class);
+        LeaseService leasesOnB = nodeB.getBean(LeaseService.class);
+
+        LeaseService.Lease held = leasesOnA.tryAcquire("test-exclusive", 60000);
+        assertNotNull(held);
+        assertNull(leasesOnB.tryAcquire("test-exclusive", 60000));
+
+        leasesOnA.release(held, 0);
+        LeaseService.Lease next = leasesOnB.tryAcquire("test-exclusive", 60000);
+        assertNotNull(next);
+        assertTrue(next.getFencingToken() > held.getFencingToken());
+        leasesOnB.release(next, 0);
+    }
+
+    @Test
+    void fencedTransactionLongerThanTheTtlKeepsTheLease() {
+        LeaseService leasesOnA = nodeA.getBean(LeaseService.class);
+        LeaseService leasesOnB = nodeB.getBean(LeaseService.class);
+        TransactionTemplate transaction = new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class));
+        long ttlMs = 1500;
+        boolean[] takenOverMeanwhile = new boolean[1];
+
+        boolean ran = leasesOnA.runExclusive("test-long-job", ttlMs, 0, lease -> {
+            transaction.executeWithoutResult(status -> {
+                leasesOnA.assertHeld(lease);
+                sleep(ttlMs * 2);
+                takenOverMeanwhile[0] = leasesOnB.tryAcquire("test-long-job", ttlMs) != null;
+                leasesOnA.assertHeld(lease);
+            });
+            // Renewed at commit and by the background renewer afterwards
+            sleep(ttlMs);
+            transaction.executeWithoutResult(status -> leasesOnA.assertHeld(lease));
+            assertFalse(lease.isLost());
+        });
+
+        assertTrue(ran);
+        assertFalse(takenOverMeanwhile[0]);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
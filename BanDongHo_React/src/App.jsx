@@ -18,24 +18,62 @@ import AdminUsers from "./pages/admin/AdminUsers"
 import AdminOrders from "./pages/admin/AdminOrders"
 import AdminLayout from "./pages/admin/AdminLayout"
 import About from "./pages/About"
+import { cartAPI } from "./services/api"
 import "./App.css"
 
 function App() {
   const [user, setUser] = useState(null)
   const [cartItems, setCartItems] = useState([])
 
+  // Convert server cart to the item shape used by the pages
+  const applyServerCart = (cart) => {
+    const items = (cart?.items || []).map((item) => ({
+      id: item.productId,
+      name: item.productName,
+      imageUrl: item.productImageUrl,
+      price: item.price,
+      quantity: item.quantity,
+      stock: item.stock,
+    }))
+    setCartItems(items)
+    localStorage.setItem("cart", JSON.stringify(items))
+  }
+
+  const syncCart = (request) => {
+    request
+      .then((response) => {
+        if (response.success) applyServerCart(response.data)
+      })
+      .catch((err) => alert(err.message || "Không thể cập nhật giỏ hàng"))
+  }
+
   // Load user and cart from localStorage on mount
   useEffect(() => {
     const savedUser = localStorage.getItem("user")
     const savedCart = localStorage.getItem("cart")
 
-    if (savedUser) setUser(JSON.parse(savedUser))
     if (savedCart) setCartItems(JSON.parse(savedCart))
+    if (savedUser) {
+      const parsedUser = JSON.parse(savedUser)
+      setUser(parsedUser)
+      // Logged-in carts live on the server so they follow the user across devices
+      syncCart(cartAPI.getCart(parsedUser.id))
+    }
   }, [])
 
-  const handleLogin = (userData) => {
+  const handleLogin = async (userData) => {
     setUser(userData)
     localStorage.setItem("user", JSON.stringify(userData))
+
+    // Move items added before logging in into the server cart
+    try {
+      for (const item of cartItems) {
+        await cartAPI.addItem(userData.id, item.id, item.quantity || 1)
+      }
+    } catch (err) {
+      console.error("Error merging cart:", err)
+    }
+    syncCart(cartAPI.getCart(userData.id))
   }
 
   const handleLogout = () => {
@@ -60,6 +98,11 @@ function App() {
 
     const existingItem = cartItems.find((item) => item.id === product.id)
 
+    if (user) {
+      syncCart(cartAPI.addItem(user.id, product.id, 1))
+      return
+    }
+
     let updatedCart
     if (existingItem) {
       // Check if adding one more would exceed stock
@@ -78,6 +121,10 @@ function App() {
   }
 
   const removeFromCart = (productId) => {
+    if (user) {
+      syncCart(cartAPI.removeItem(user.id, productId))
+      return
+    }
     const updatedCart = cartItems.filter((item) => item.id !== productId)
     setCartItems(updatedCart)
     localStorage.setItem("cart", JSON.stringify(updatedCart))
@@ -97,6 +144,11 @@ function App() {
       quantity = cartItem.stock
     }
 
+    if (user) {
+      syncCart(cartAPI.updateItem(user.id, productId, quantity))
+      return
+    }
+
     const updatedCart = cartItems.map((item) => (item.id === productId ? { ...item, quantity } : item))
     setCartItems(updatedCart)
     localStorage.setItem("cart", JSON.stringify(updatedCart))
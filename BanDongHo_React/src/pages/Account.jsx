@@ -8,6 +8,8 @@ function Account({ user, onLogout, onUserUpdate }) {
   const [searchParams] = useSearchParams()
   const [activeTab, setActiveTab] = useState("profile")
   const [orders, setOrders] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [loading, setLoading] = useState(false)
   const [error, setError] = useState("")
   const [success, setSuccess] = useState("")
@@ -53,9 +55,10 @@ function Account({ user, onLogout, onUserUpdate }) {
     try {
       setLoading(true)
       setError("")
-      const response = await orderAPI.getOrdersByUserId(user.id)
-      if (response.success) {
-        setOrders(response.data || [])
+      const response = await orderAPI.getOrderHistory(user.id)
+      if (response.success && response.data) {
+        setOrders(response.data.items || [])
+        setNextCursor(response.data.nextCursor)
       }
     } catch (err) {
       setError(err.message || "Không thể tải lịch sử đơn hàng")
@@ -64,6 +67,22 @@ function Account({ user, onLogout, onUserUpdate }) {
     }
   }
 
+  const loadMoreOrders = async () => {
+    if (!nextCursor) return
+    try {
+      setLoadingMore(true)
+      const response = await orderAPI.getOrderHistory(user.id, { cursor: nextCursor })
+      if (response.success && response.data) {
+        setOrders((prev) => [...prev, ...(response.data.items || [])])
+        setNextCursor(response.data.nextCursor)
+      }
+    } catch (err) {
+      setError(err.message || "Không thể tải lịch sử đơn hàng")
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   const handleLogout = () => {
     onLogout()
     navigate("/login")
@@ -494,6 +513,11 @@ function Account({ user, onLogout, onUserUpdate }) {
                         </div>
                       </div>
                     ))}
+                    {nextCursor && (
+                      <button className="btn-primary" onClick={loadMoreOrders} disabled={loadingMore}>
+                        {loadingMore ? "Đang tải..." : "Xem Thêm Đơn Hàng"}
+                      </button>
+                    )}
                   </div>
                 ) : (
                   <div className="no-orders">
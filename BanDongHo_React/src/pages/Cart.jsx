@@ -1,7 +1,40 @@
+import { useState, useEffect } from "react"
 import { Link } from "react-router-dom"
+import { cartAPI } from "../services/api"
 import "./Cart.css"
 
-function Cart({ items, onRemove, onUpdateQuantity }) {
+function Cart({ items: cartItems, onRemove, onUpdateQuantity }) {
+  const [quote, setQuote] = useState(null)
+
+  // Lấy giá và tồn kho hiện tại mỗi khi giỏ hàng thay đổi
+  useEffect(() => {
+    if (cartItems.length === 0) {
+      setQuote(null)
+      return
+    }
+
+    let cancelled = false
+    const timer = setTimeout(() => {
+      cartAPI
+        .quote(cartItems.map((item) => ({ productId: item.id, quantity: item.quantity || 1 })))
+        .then((response) => {
+          if (!cancelled && response.success) setQuote(response.data)
+        })
+        .catch((err) => console.error("Error quoting cart:", err))
+    }, 200)
+
+    return () => {
+      cancelled = true
+      clearTimeout(timer)
+    }
+  }, [cartItems])
+
+  // Giá và tồn kho từ server được ưu tiên hơn dữ liệu lưu ở trình duyệt
+  const items = cartItems.map((item) => {
+    const line = quote?.items.find((quoted) => quoted.productId === item.id)
+    return line ? { ...item, price: line.price ?? item.price, stock: line.stock } : item
+  })
+
   const formatPrice = (price) => {
     if (!price) return "0"
     return new Intl.NumberFormat("vi-VN", {
@@ -15,7 +48,7 @@ function Cart({ items, onRemove, onUpdateQuantity }) {
     return sum + itemPrice * (item.quantity || 1)
   }, 0)
 
-  const finalTotal = subtotal
+  const finalTotal = quote ? quote.totalAmount : subtotal
 
   // Check if any item is out of stock or has invalid quantity
   const hasOutOfStockItems = items.some((item) => item.stock !== undefined && item.stock === 0)
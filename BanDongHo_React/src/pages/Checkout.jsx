@@ -1,6 +1,6 @@
-import { useState } from "react"
+import { useState, useEffect, useRef } from "react"
 import { useNavigate, Link } from "react-router-dom"
-import { orderAPI } from "../services/api"
+import { orderAPI, reservationAPI } from "../services/api"
 import "./Checkout.css"
 
 function Checkout({ cartItems, onClearCart, user }) {
@@ -13,6 +13,45 @@ function Checkout({ cartItems, onClearCart, user }) {
     shippingAddress: user?.address || "",
     phoneNumber: user?.phone || "",
   })
+  const [reservation, setReservation] = useState(null)
+  const reservationRef = useRef(null)
+  const orderPlacedRef = useRef(false)
+  // Cùng một key cho mọi lần gửi lại của một lần đặt hàng, server sẽ không tạo đơn trùng
+  const idempotencyKeyRef = useRef(null)
+
+  // Giữ hàng trong giỏ khi vào trang thanh toán, hủy giữ khi rời trang mà chưa đặt hàng
+  useEffect(() => {
+    if (!user || cartItems.length === 0) return
+
+    let cancelled = false
+    const items = cartItems.map((item) => ({
+      productId: item.id,
+      quantity: item.quantity || 1,
+    }))
+
+    reservationAPI
+      .reserve({ userId: user.id, items })
+      .then((response) => {
+        if (!cancelled && response.success && response.data) {
+          reservationRef.current = response.data.id
+          setReservation(response.data)
+        }
+      })
+      .catch((err) => {
+        if (!cancelled) {
+          setError(err.message || "Không thể giữ hàng cho đơn hàng này")
+        }
+      })
+
+    return () => {
+      cancelled = true
+      if (reservationRef.current && !orderPlacedRef.current) {
+        reservationAPI.release(reservationRef.current).catch(() => {})
+        reservationRef.current = null
+      }
+    }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [user?.id])
 
   const formatPrice = (price) => {
     if (!price) return "0"
@@ -55,23 +94,24 @@ function Checkout({ cartItems, onClearCart, user }) {
       setLoading(true)
       setError("")
 
-      // Convert cart items to order items format
-      const orderItems = cartItems.map((item) => ({
-        productId: item.id,
-        quantity: item.quantity || 1,
-        price: parseFloat(item.price) || 0,
-      }))
-
+      // Giỏ hàng được lấy trực tiếp từ server, không cần gửi kèm
       const checkoutData = {
         userId: user.id,
         shippingAddress: formData.shippingAddress,
         phoneNumber: formData.phoneNumber,
-        cartItems: orderItems,
+        reservationId: reservationRef.current,
+      }
+
+      if (!idempotencyKeyRef.current) {
+        idempotencyKeyRef.current = window.crypto?.randomUUID
+          ? window.crypto.randomUUID()
+          : `${Date.now()}-${Math.random().toString(36).slice(2)}`
       }
 
-      const response = await orderAPI.checkout(checkoutData)
+      const response = await orderAPI.checkout(checkoutData, idempotencyKeyRef.current)
 
       if (response.success && response.data) {
+        orderPlacedRef.current = true
         setOrderNumber(response.data.orderNumber || `#${response.data.id}`)
         setOrderPlaced(true)
         onClearCart()
@@ -125,6 +165,12 @@ function Checkout({ cartItems, onClearCart, user }) {
         <h1>Thanh Toán</h1>
 
         {error && <div className="error-message">{error}</div>}
+        {reservation && (
+          <div className="reservation-notice">
+            Sản phẩm được giữ cho bạn đến{" "}
+            {new Date(reservation.expiresAt).toLocaleTimeString("vi-VN", { hour: "2-digit", minute: "2-digit" })}
+          </div>
+        )}
 
         <div className="checkout-content">
           <form onSubmit={handleSubmit} className="checkout-form">
@@ -84,8 +84,11 @@ function Home() {
                     <div className="product-image">
                       <img
                         src={product.imageUrl || "/placeholder.svg"}
+                        srcSet={product.srcset || undefined}
+                        sizes="(max-width: 768px) 50vw, 300px"
                         alt={product.name}
                         onError={(e) => {
+                          e.target.srcset = ""
                           e.target.src = "/placeholder.svg"
                         }}
                       />
@@ -39,6 +39,13 @@ function ProductDetail({ onAddToCart }) {
 
   const loadRelatedProducts = async (categoryId, currentProductId) => {
     try {
+      // Ưu tiên sản phẩm thường được mua cùng, nếu chưa có thì lấy cùng danh mục
+      const boughtTogether = await productAPI.getRelatedProducts(currentProductId, 3)
+      if (boughtTogether.success && boughtTogether.data && boughtTogether.data.length > 0) {
+        setRelatedProducts(boughtTogether.data)
+        return
+      }
+
       const response = await productAPI.getProductsByCategory(categoryId)
       if (response.success) {
         const related = (response.data || [])
@@ -116,8 +123,11 @@ function ProductDetail({ onAddToCart }) {
           <div className="product-image-section">
             <img
               src={product.imageUrl || "/placeholder.svg"}
+              srcSet={product.srcset || undefined}
+              sizes="(max-width: 768px) 100vw, 50vw"
               alt={product.name}
               onError={(e) => {
+                e.target.srcset = ""
                 e.target.src = "/placeholder.svg"
               }}
             />
@@ -218,8 +228,11 @@ function ProductDetail({ onAddToCart }) {
                 <Link key={related.id} to={`/product/${related.id}`} className="related-card">
                   <img
                     src={related.imageUrl || "/placeholder.svg"}
+                    srcSet={related.srcset || undefined}
+                    sizes="(max-width: 768px) 50vw, 250px"
                     alt={related.name}
                     onError={(e) => {
+                      e.target.srcset = ""
                       e.target.src = "/placeholder.svg"
                     }}
                   />
@@ -146,8 +146,11 @@ function Shop({ onAddToCart }) {
                     <div className="product-image">
                     <img
                       src={product.imageUrl || "/placeholder.svg"}
+                      srcSet={product.srcset || undefined}
+                      sizes="(max-width: 768px) 50vw, 300px"
                       alt={product.name}
                       onError={(e) => {
+                        e.target.srcset = ""
                         e.target.src = "/placeholder.svg"
                       }}
                     />
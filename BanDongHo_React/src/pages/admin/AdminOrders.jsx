@@ -38,8 +38,8 @@ function AdminOrders({ user }) {
       setLoading(true)
       setError("")
       const response = await orderAPI.searchOrders(searchKeyword)
-      if (response.success) {
-        setOrders(response.data || [])
+      if (response.success && response.data) {
+        setOrders(response.data.items || [])
       }
     } catch (err) {
       setError(err.message || "Không thể tìm kiếm đơn hàng")
@@ -157,7 +157,11 @@ function AdminProducts({ user }) {
       }
 
       if (editingProduct) {
-        const response = await productAPI.updateProduct(editingProduct.id, productData)
+        // The server rejects the update with 409 if someone else changed the product since it was loaded
+        const response = await productAPI.updateProduct(editingProduct.id, {
+          ...productData,
+          version: editingProduct.version,
+        })
         if (response.success) {
           await loadProducts()
           resetProductForm()
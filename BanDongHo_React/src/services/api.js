@@ -4,11 +4,11 @@ const API_BASE_URL = 'http://localhost:8080/api';
 const apiRequest = async (endpoint, options = {}) => {
   const url = `${API_BASE_URL}${endpoint}`;
   const config = {
+    ...options,
     headers: {
       'Content-Type': 'application/json',
       ...options.headers,
     },
-    ...options,
   };
 
   try {
@@ -97,6 +97,11 @@ export const productAPI = {
     return apiRequest(`/products/${id}`);
   },
 
+  // Lấy sản phẩm thường được mua cùng
+  getRelatedProducts: async (id, limit = 3) => {
+    return apiRequest(`/products/${id}/related?limit=${limit}`);
+  },
+
   // Lấy sản phẩm theo danh mục
   getProductsByCategory: async (categoryId) => {
     return apiRequest(`/products/category/${categoryId}`);
@@ -175,9 +180,11 @@ export const categoryAPI = {
 // Order API
 export const orderAPI = {
   // Tạo đơn hàng (checkout)
-  checkout: async (checkoutData) => {
+  // idempotencyKey: giữ nguyên khi gửi lại để không tạo đơn trùng
+  checkout: async (checkoutData, idempotencyKey) => {
     return apiRequest('/orders/checkout', {
       method: 'POST',
+      headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {},
       body: JSON.stringify(checkoutData),
     });
   },
@@ -187,6 +194,13 @@ export const orderAPI = {
     return apiRequest(`/orders/user/${userId}`);
   },
 
+  // Lấy lịch sử đơn hàng theo trang (cursor)
+  getOrderHistory: async (userId, { cursor, size = 10, summary = false } = {}) => {
+    const params = new URLSearchParams({ size, summary })
+    if (cursor) params.append('cursor', cursor)
+    return apiRequest(`/orders/user/${userId}/page?${params.toString()}`);
+  },
+
   // Lấy chi tiết đơn hàng
   getOrderById: async (id) => {
     return apiRequest(`/orders/${id}`);
@@ -198,9 +212,10 @@ export const orderAPI = {
   },
 
   // Cập nhật đơn hàng (Admin)
-  updateOrder: async (id, orderData) => {
+  updateOrder: async (id, orderData, idempotencyKey) => {
     return apiRequest(`/orders/${id}`, {
       method: 'PUT',
+      headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {},
       body: JSON.stringify(orderData),
     });
   },
@@ -213,8 +228,10 @@ export const orderAPI = {
   },
 
   // Tìm kiếm đơn hàng (Admin)
-  searchOrders: async (keyword) => {
-    return apiRequest(`/orders/search?keyword=${encodeURIComponent(keyword)}`);
+  searchOrders: async (keyword, cursor = null, size = 50) => {
+    const params = new URLSearchParams({ keyword, size })
+    if (cursor) params.append('cursor', cursor)
+    return apiRequest(`/orders/search/page?${params.toString()}`);
   },
 
   // Xóa đơn hàng (Admin)
@@ -225,10 +242,70 @@ export const orderAPI = {
   },
 };
 
+// Cart API (giỏ hàng lưu trên server)
+export const cartAPI = {
+  getCart: async (userId) => {
+    return apiRequest(`/carts/${userId}`);
+  },
+
+  addItem: async (userId, productId, quantity = 1) => {
+    return apiRequest(`/carts/${userId}/items`, {
+      method: 'POST',
+      body: JSON.stringify({ productId, quantity }),
+    });
+  },
+
+  updateItem: async (userId, productId, quantity) => {
+    return apiRequest(`/carts/${userId}/items/${productId}?quantity=${quantity}`, {
+      method: 'PUT',
+    });
+  },
+
+  removeItem: async (userId, productId) => {
+    return apiRequest(`/carts/${userId}/items/${productId}`, {
+      method: 'DELETE',
+    });
+  },
+
+  clearCart: async (userId) => {
+    return apiRequest(`/carts/${userId}`, {
+      method: 'DELETE',
+    });
+  },
+
+  // Giá, tồn kho và tổng tiền hiện tại cho danh sách sản phẩm trong giỏ
+  quote: async (items) => {
+    return apiRequest('/cart/quote', {
+      method: 'POST',
+      body: JSON.stringify(items),
+    });
+  },
+};
+
+// Reservation API (giữ hàng khi thanh toán)
+export const reservationAPI = {
+  // Giữ hàng trong giỏ khi vào trang thanh toán
+  reserve: async (reservationData) => {
+    return apiRequest('/reservations', {
+      method: 'POST',
+      body: JSON.stringify(reservationData),
+    });
+  },
+
+  // Hủy giữ hàng
+  release: async (id) => {
+    return apiRequest(`/reservations/${id}`, {
+      method: 'DELETE',
+    });
+  },
+};
+
 export default {
   userAPI,
   productAPI,
   categoryAPI,
   orderAPI,
+  cartAPI,
+  reservationAPI,
 };
 